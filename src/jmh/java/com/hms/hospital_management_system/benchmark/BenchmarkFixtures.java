@@ -0,0 +1,45 @@
+package com.hms.hospital_management_system.benchmark;
+
+import com.hms.hospital_management_system.entity.Appointment;
+import com.hms.hospital_management_system.entity.Doctor;
+import com.hms.hospital_management_system.entity.Patient;
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.mapper.AppointmentMapper;
+import com.hms.hospital_management_system.mapper.DoctorMapper;
+import com.hms.hospital_management_system.mapper.PatientMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Realistically sized entities built in memory, so the benchmarks need neither a database nor a Spring context
+final class BenchmarkFixtures {
+
+	static final LocalDateTime DAY_START = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+	private BenchmarkFixtures() {
+	}
+
+	static Patient patient(long id) {
+		return Patient.builder().id(id).firstName("Patient" + id).lastName("Example").email("patient" + id + "@hms.test")
+				.phone("+1-555-01" + id).dateOfBirth(LocalDate.of(1980, 1, 1).plusDays(id)).gender("FEMALE")
+				.address(id + " Main Street, Springfield").medicalHistory("Hypertension, controlled with medication")
+				.allergies("Penicillin").build();
+	}
+
+	static Doctor doctor(long id) {
+		return Doctor.builder().id(id).firstName("Doctor" + id).lastName("Example").email("doctor" + id + "@hms.test")
+				.phone("+1-555-02" + id).specialization("Cardiology").qualifications("MD, FACC")
+				.availability("Mon-Fri 9-5").build();
+	}
+
+	static Appointment appointment(long id, Patient patient, Doctor doctor) {
+		LocalDateTime start = DAY_START.plusDays(id / 16).plusMinutes(30 * (id % 16));
+		return Appointment.builder().id(id).patient(patient).doctor(doctor).appointmentTime(start)
+				.durationMinutes(30).endTime(start.plusMinutes(30)).status(AppointmentStatus.SCHEDULED)
+				.notes("Follow-up visit").build();
+	}
+
+	static AppointmentMapper appointmentMapper() {
+		return new AppointmentMapper(new PatientMapper(), new DoctorMapper());
+	}
+}
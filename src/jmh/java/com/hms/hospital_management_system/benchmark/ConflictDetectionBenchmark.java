@@ -0,0 +1,83 @@
+package com.hms.hospital_management_system.benchmark;
+
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.service.booking.BookingLockManager;
+import com.hms.hospital_management_system.service.booking.DoctorScheduleIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory side of a booking: the overlap check against the doctor's schedule and taking and releasing
+ * the booking locks. Schedules hold a year of mixed-length visits per doctor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConflictDetectionBenchmark {
+
+	private static final int DOCTORS = 50;
+	private static final int DAYS = 365;
+	private static final long[] DURATIONS = {10, 20, 30, 60};
+
+	@Param({"8"})
+	public int bookingsPerDay;
+
+	private DoctorScheduleIndex index;
+	private BookingLockManager lockManager;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		index = new DoctorScheduleIndex(null); // Filled directly, the repository is only used to warm up at startup
+		lockManager = new BookingLockManager();
+		long id = 0;
+		for (long doctorId = 1; doctorId <= DOCTORS; doctorId++) {
+			for (int day = 0; day < DAYS; day++) {
+				LocalDateTime start = BenchmarkFixtures.DAY_START.plusDays(day);
+				for (int i = 0; i < bookingsPerDay; i++) {
+					LocalDateTime end = start.plusMinutes(DURATIONS[i % DURATIONS.length]);
+					index.put(++id, doctorId, start, end, AppointmentStatus.SCHEDULED);
+					start = end.plusMinutes(10);
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public boolean overlapCheck() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		LocalDateTime start = BenchmarkFixtures.DAY_START.plusDays(random.nextInt(DAYS)).plusMinutes(5L * random.nextInt(120));
+		return index.isBooked(random.nextLong(1, DOCTORS + 1), start, start.plusMinutes(20));
+	}
+
+	@Benchmark
+	public void lockAndRelease() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		LocalDateTime start = BenchmarkFixtures.DAY_START.plusDays(random.nextInt(DAYS)).plusMinutes(5L * random.nextInt(120));
+		lockManager.lock(random.nextLong(1, DOCTORS + 1), start, start.plusMinutes(30)).close();
+	}
+
+	// Same lock traffic from four threads, to see what contention on the lock table costs
+	@Benchmark
+	@Threads(4)
+	public void lockAndReleaseContended() {
+		lockAndRelease();
+	}
+}
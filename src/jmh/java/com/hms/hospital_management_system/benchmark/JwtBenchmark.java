@@ -0,0 +1,68 @@
+package com.hms.hospital_management_system.benchmark;
+
+import com.hms.hospital_management_system.entity.User;
+import com.hms.hospital_management_system.entity.enums.Role;
+import com.hms.hospital_management_system.security.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating a request from its bearer token: a full signature check and claims parse
+ * (first request with a token) against a hit in {@link JwtService}'s claims cache (every request after that).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+	private static final String SECRET = "yourVeryLongAndSecureJWTSecretKeyThatShouldBeAtLeast256BitsLongAndRandom";
+
+	private JwtService uncached;
+	private JwtService cached;
+	private User user;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		uncached = new JwtService(SECRET, 86_400_000, 0); // A size-0 cache verifies the token on every call
+		cached = new JwtService(SECRET, 86_400_000, 10_000);
+		user = User.builder().id(42L).email("doctor@hms.test").password("unused").role(Role.DOCTOR).build();
+		token = cached.generateToken(Map.of("role", "ROLE_DOCTOR", "uid", 42L), user);
+		cached.extractAllClaims(token);
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return uncached.generateToken(Map.of("role", "ROLE_DOCTOR", "uid", 42L), user);
+	}
+
+	@Benchmark
+	public Claims parseAndVerify() {
+		return uncached.extractAllClaims(token);
+	}
+
+	@Benchmark
+	public Claims cachedClaims() {
+		return cached.extractAllClaims(token);
+	}
+
+	@Benchmark
+	public boolean cachedClaimsAndValidate() {
+		return cached.isTokenValid(cached.extractAllClaims(token), user);
+	}
+}
@@ -0,0 +1,87 @@
+package com.hms.hospital_management_system.benchmark;
+
+import com.hms.hospital_management_system.dto.AppointmentResponse;
+import com.hms.hospital_management_system.dto.DoctorResponse;
+import com.hms.hospital_management_system.dto.PatientResponse;
+import com.hms.hospital_management_system.entity.Appointment;
+import com.hms.hospital_management_system.entity.Doctor;
+import com.hms.hospital_management_system.entity.Patient;
+import com.hms.hospital_management_system.mapper.AppointmentMapper;
+import com.hms.hospital_management_system.mapper.DoctorMapper;
+import com.hms.hospital_management_system.mapper.PatientMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Entity to DTO mapping, per record and for a full page of appointments as served by the listing endpoints
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+	private static final int PAGE_SIZE = 20;
+
+	private final PatientMapper patientMapper = new PatientMapper();
+	private final DoctorMapper doctorMapper = new DoctorMapper();
+	private final AppointmentMapper appointmentMapper = BenchmarkFixtures.appointmentMapper();
+
+	private Patient patient;
+	private Doctor doctor;
+	private Appointment appointment;
+	private PatientResponse patientResponse;
+	private DoctorResponse doctorResponse;
+	private List<Appointment> page;
+
+	@Setup
+	public void setUp() {
+		patient = BenchmarkFixtures.patient(1);
+		doctor = BenchmarkFixtures.doctor(1);
+		appointment = BenchmarkFixtures.appointment(1, patient, doctor);
+		patientResponse = patientMapper.toDto(patient);
+		doctorResponse = doctorMapper.toDto(doctor);
+		page = new ArrayList<>();
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			page.add(BenchmarkFixtures.appointment(i, BenchmarkFixtures.patient(i), BenchmarkFixtures.doctor(i % 4)));
+		}
+	}
+
+	@Benchmark
+	public PatientResponse patientToDto() {
+		return patientMapper.toDto(patient);
+	}
+
+	@Benchmark
+	public DoctorResponse doctorToDto() {
+		return doctorMapper.toDto(doctor);
+	}
+
+	@Benchmark
+	public AppointmentResponse appointmentToDto() {
+		return appointmentMapper.toDto(appointment);
+	}
+
+	// The create/update path, which reuses the cached patient and doctor DTOs
+	@Benchmark
+	public AppointmentResponse appointmentToDtoWithParticipants() {
+		return appointmentMapper.toDto(appointment, patientResponse, doctorResponse);
+	}
+
+	@Benchmark
+	public List<AppointmentResponse> pageOfAppointmentsToDto() {
+		return page.stream().map(appointmentMapper::toDto).toList();
+	}
+}
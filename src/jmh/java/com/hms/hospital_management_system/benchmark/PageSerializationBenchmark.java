@@ -0,0 +1,96 @@
+package com.hms.hospital_management_system.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.hospital_management_system.dto.AppointmentResponse;
+import com.hms.hospital_management_system.mapper.AppointmentMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Body of the paged appointment listings in each representation a client can negotiate (Accept and Accept-Encoding),
+// written with the same Jackson defaults Spring Boot configures. The score is the time to produce the bytes on the
+// wire, their number is reported next to it as the secondary result "bytes".
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageSerializationBenchmark {
+
+	@Param({"20", "100"})
+	public int pageSize;
+
+	@Param({"json", "smile", "cbor"})
+	public String format;
+
+	@Param({"identity", "gzip"})
+	public String encoding;
+
+	private ObjectMapper objectMapper;
+
+	private Page<AppointmentResponse> page;
+
+	@Setup
+	public void setUp() throws IOException {
+		objectMapper = switch (format) {
+			case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+			case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+			default -> Jackson2ObjectMapperBuilder.json().build();
+		};
+		AppointmentMapper appointmentMapper = BenchmarkFixtures.appointmentMapper();
+		List<AppointmentResponse> content = new ArrayList<>();
+		for (int i = 0; i < pageSize; i++) {
+			content.add(appointmentMapper.toDto(BenchmarkFixtures.appointment(i,
+					BenchmarkFixtures.patient(i), BenchmarkFixtures.doctor(i % 4))));
+		}
+		page = new PageImpl<>(content, PageRequest.of(3, pageSize), 10_000);
+	}
+
+	@Benchmark
+	public byte[] serializePage(BodySize size) throws IOException {
+		byte[] body = serialize();
+		size.bytes = body.length;
+		return body;
+	}
+
+	private byte[] serialize() throws IOException {
+		if (!"gzip".equals(encoding)) {
+			return objectMapper.writeValueAsBytes(page);
+		}
+		// Default deflate level, as used by Tomcat's compression
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+			objectMapper.writeValue(gzip, page);
+		}
+		return bytes.toByteArray();
+	}
+
+	// Size of the body, the same on every call. JMH reports an EVENTS counter as its value at the end of each iteration
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class BodySize {
+
+		public long bytes;
+	}
+}
@@ -2,9 +2,11 @@ package com.hms.hospital_management_system;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 //@SpringBootApplication
 @SpringBootApplication(scanBasePackages = "com.hms.hospital_management_system")
+@EnableScheduling
 public class HospitalManagementSystemApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,17 @@
+package com.hms.hospital_management_system.config;
+
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Caches are configured through the spring.cache.* properties (Caffeine, size and TTL bounded, with stats).
+// Caching runs outside the transaction, so cache hits never open one. Entries are not evicted with @CacheEvict:
+// the services evict them from an after-commit callback, which also holds when they join an outer transaction.
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String DOCTORS = "doctors";
+    public static final String PATIENTS = "patients";
+}
@@ -0,0 +1,34 @@
+package com.hms.hospital_management_system.config;
+
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Puts ConcurrencyLimitingDataSource in front of the auto-configured connection pool.
+// db.limiter.max-concurrent defaults to the Hikari pool size, set it lower to keep a few connections spare
+// for startup and scheduled work.
+@Configuration
+public class DatabaseConcurrencyConfig {
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitingDataSource
+                        || !environment.getProperty("db.limiter.enabled", Boolean.class, true)) {
+                    return bean;
+                }
+                int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                return new ConcurrencyLimitingDataSource(dataSource,
+                        environment.getProperty("db.limiter.max-concurrent", Integer.class, poolSize),
+                        Duration.ofMillis(environment.getProperty("db.limiter.acquire-timeout-ms", Long.class, 2000L)));
+            }
+        };
+    }
+}
@@ -2,6 +2,7 @@ package com.hms.hospital_management_system.config;
 
 import com.hms.hospital_management_system.security.JwtAuthenticationEntryPoint;
 import com.hms.hospital_management_system.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -43,8 +44,12 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource())) // Enable CORS, now expecting CorsConfigurationSource
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(jwtAuthenticationEntryPoint)) // Handle unauthorized access
                 .authorizeHttpRequests(authorize -> authorize
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Completion of an already authorized event stream
                         .requestMatchers("/api/auth/**").permitAll() // Allow authentication endpoints
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-resources/**", "/webjars/**").permitAll() // Allow Swagger UI
+                        .requestMatchers("/actuator/health").permitAll() // Liveness checks
+                        .requestMatchers("/actuator/prometheus").permitAll() // Scraped without a token, only served on management.server.port
+                        .requestMatchers("/actuator/**").hasRole("ADMIN") // Metrics and cache statistics
                         .anyRequest().authenticated() // All other requests require authentication
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // Stateless session
@@ -3,14 +3,28 @@ package com.hms.hospital_management_system.controller;
 
 import com.hms.hospital_management_system.dto.AppointmentRequest;
 import com.hms.hospital_management_system.dto.AppointmentResponse;
+import com.hms.hospital_management_system.dto.AppointmentSummaryPage;
+import com.hms.hospital_management_system.dto.BulkAppointmentRequest;
+import com.hms.hospital_management_system.dto.BulkAppointmentResponse;
+import com.hms.hospital_management_system.dto.CursorPage;
+import com.hms.hospital_management_system.repository.projection.AppointmentVersions;
 import com.hms.hospital_management_system.service.AppointmentService;
+import com.hms.hospital_management_system.service.export.ExportFormat;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("/api/appointments")
@@ -29,10 +43,25 @@ public class AppointmentController {
         return new ResponseEntity<>(appointmentService.createAppointment(request), HttpStatus.CREATED);
     }
 
+    // Schedules many appointments at once, answering with the outcome of every item
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkAppointmentResponse> scheduleAppointments(@Valid @RequestBody BulkAppointmentRequest request) {
+        return ResponseEntity.ok(appointmentService.scheduleAppointments(request.getAppointments()));
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'PATIENT')")
     @GetMapping("/{id}")
-    public ResponseEntity<AppointmentResponse> getAppointmentById(@PathVariable Long id) {
-        return ResponseEntity.ok(appointmentService.getAppointmentById(id));
+    public ResponseEntity<AppointmentResponse> getAppointmentById(@PathVariable Long id, WebRequest request) {
+        // A revalidation reads only the version columns of the appointment, its patient and its doctor
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            AppointmentVersions versions = appointmentService.getAppointmentVersions(id);
+            if (request.checkNotModified(ETags.of(versions.appointment(), versions.patient(), versions.doctor()))) {
+                return null;
+            }
+        }
+        AppointmentResponse appointment = appointmentService.getAppointmentById(id);
+        return ResponseEntity.ok().eTag(eTagOf(appointment)).body(appointment);
     }
 
     @PreAuthorize("hasAnyRole('ADMIN')") // Only ADMIN can view all appointments
@@ -41,6 +70,26 @@ public class AppointmentController {
         return ResponseEntity.ok(appointmentService.getAllAppointments(pageable));
     }
 
+    // ?view=summary on the listings: participants by id plus one dictionary entry each, instead of the full patient and
+    // doctor embedded in every row
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<AppointmentSummaryPage> getAppointmentSummaries(Pageable pageable) {
+        return ResponseEntity.ok(appointmentService.getAppointmentSummaries(pageable));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'PATIENT')")
+    @GetMapping(path = "/patient/{patientId}", params = "view=summary")
+    public ResponseEntity<AppointmentSummaryPage> getAppointmentSummariesByPatient(@PathVariable Long patientId, Pageable pageable) {
+        return ResponseEntity.ok(appointmentService.getAppointmentSummariesByPatient(patientId, pageable));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'PATIENT')")
+    @GetMapping(path = "/doctor/{doctorId}", params = "view=summary")
+    public ResponseEntity<AppointmentSummaryPage> getAppointmentSummariesByDoctor(@PathVariable Long doctorId, Pageable pageable) {
+        return ResponseEntity.ok(appointmentService.getAppointmentSummariesByDoctor(doctorId, pageable));
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'PATIENT')")
     @GetMapping("/patient/{patientId}")
     public ResponseEntity<Page<AppointmentResponse>> getAppointmentsByPatient(@PathVariable Long patientId, Pageable pageable) {
@@ -53,11 +102,57 @@ public class AppointmentController {
         return ResponseEntity.ok(appointmentService.getAppointmentsByDoctor(doctorId, pageable));
     }
 
+    // Server-sent events instead of polling the listings: every committed change, only those touching the doctor's
+    // schedule when doctorId is given. EventSource clients resume after a disconnect through Last-Event-ID.
+    @PreAuthorize("hasRole('ADMIN') or (#doctorId != null and hasAnyRole('DOCTOR', 'PATIENT'))")
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAppointments(@RequestParam(required = false) Long doctorId,
+                                         @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return appointmentService.streamAppointments(doctorId, lastEventId);
+    }
+
+    // Cursor-based variants of the listings above: constant cost per page, no total count
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<AppointmentResponse>> scrollAppointments(@RequestParam(required = false) String cursor,
+                                                                              @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(appointmentService.scrollAppointments(cursor, size));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'PATIENT')")
+    @GetMapping("/patient/{patientId}/scroll")
+    public ResponseEntity<CursorPage<AppointmentResponse>> scrollAppointmentsByPatient(@PathVariable Long patientId,
+                                                                                       @RequestParam(required = false) String cursor,
+                                                                                       @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(appointmentService.scrollAppointmentsByPatient(patientId, cursor, size));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'PATIENT')")
+    @GetMapping("/doctor/{doctorId}/scroll")
+    public ResponseEntity<CursorPage<AppointmentResponse>> scrollAppointmentsByDoctor(@PathVariable Long doctorId,
+                                                                                      @RequestParam(required = false) String cursor,
+                                                                                      @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(appointmentService.scrollAppointmentsByDoctor(doctorId, cursor, size));
+    }
+
+    // Full export for reporting, written to the response while rows are read instead of being collected first
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @GetMapping("/export")
+    public void exportAppointments(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"appointments." + exportFormat.getFileExtension() + "\"");
+        appointmentService.exportAppointments(exportFormat, response.getWriter());
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN', 'PATIENT', 'DOCTOR')") // ADMIN, PATIENT (for their own), DOCTOR (for their own)
     @PutMapping("/{id}")
-    public ResponseEntity<AppointmentResponse> updateAppointment(@PathVariable Long id, @Valid @RequestBody AppointmentRequest request) {
+    public ResponseEntity<AppointmentResponse> updateAppointment(@PathVariable Long id, @Valid @RequestBody AppointmentRequest request,
+                                                                 @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         // Further logic can be added here to restrict updates (e.g., patient can only update their own appt)
-        return ResponseEntity.ok(appointmentService.updateAppointment(id, request));
+        AppointmentResponse appointment = appointmentService.updateAppointment(id, request, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(eTagOf(appointment)).body(appointment);
     }
 
     @PreAuthorize("hasAnyRole('ADMIN')") // Only ADMIN can delete for simplicity
@@ -66,4 +161,8 @@ public class AppointmentController {
         appointmentService.deleteAppointment(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static String eTagOf(AppointmentResponse appointment) {
+        return ETags.of(appointment.getVersion(), appointment.getPatient().getVersion(), appointment.getDoctor().getVersion());
+    }
 }
@@ -3,14 +3,19 @@ package com.hms.hospital_management_system.controller;
 
 import com.hms.hospital_management_system.dto.AuthRequest;
 import com.hms.hospital_management_system.dto.AuthResponse;
+import com.hms.hospital_management_system.dto.RefreshTokenRequest;
 import com.hms.hospital_management_system.dto.RegisterRequest;
+import com.hms.hospital_management_system.dto.RevokeTokensRequest;
 import com.hms.hospital_management_system.service.auth.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -30,4 +35,25 @@ public class AuthController {
     public ResponseEntity<AuthResponse> authenticate(@Valid @RequestBody AuthRequest request) {
         return ResponseEntity.ok(authService.authenticate(request));
     }
+
+    // Exchanges a refresh token for a new access token and the next refresh token
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refresh(request));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request,
+                                       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        authService.logout(request, accessToken);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')") // Locks a user out by invalidating every token issued to them so far
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revokeTokens(@Valid @RequestBody RevokeTokensRequest request) {
+        authService.revokeTokens(request);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -1,17 +1,29 @@
 package com.hms.hospital_management_system.controller;
 
 
+import com.hms.hospital_management_system.dto.CursorPage;
 import com.hms.hospital_management_system.dto.DoctorRequest;
 import com.hms.hospital_management_system.dto.DoctorResponse;
+import com.hms.hospital_management_system.dto.DoctorSlotResponse;
+import com.hms.hospital_management_system.dto.TimeSlotResponse;
+import com.hms.hospital_management_system.dto.WeeklyScheduleRequest;
+import com.hms.hospital_management_system.dto.WorkingHoursResponse;
+import com.hms.hospital_management_system.service.DoctorAvailabilityService;
 import com.hms.hospital_management_system.service.DoctorService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/doctors")
@@ -19,6 +31,7 @@ import org.springframework.web.bind.annotation.*;
 public class DoctorController {
 
     private final DoctorService doctorService;
+    private final DoctorAvailabilityService doctorAvailabilityService;
 
     @PreAuthorize("hasRole('ADMIN')") // Only ADMIN can create doctors
     @PostMapping
@@ -28,8 +41,14 @@ public class DoctorController {
 
     @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'PATIENT')")
     @GetMapping("/{id}")
-    public ResponseEntity<DoctorResponse> getDoctorById(@PathVariable Long id) {
-        return ResponseEntity.ok(doctorService.getDoctorById(id));
+    public ResponseEntity<DoctorResponse> getDoctorById(@PathVariable Long id, WebRequest request) {
+        // A revalidation reads only the version column, the record is loaded (or taken from the cache) when it changed
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(ETags.of(doctorService.getDoctorVersion(id)))) {
+            return null;
+        }
+        DoctorResponse doctor = doctorService.getDoctorById(id);
+        return ResponseEntity.ok().eTag(ETags.of(doctor.getVersion())).body(doctor);
     }
 
     @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'PATIENT')")
@@ -38,16 +57,58 @@ public class DoctorController {
         return ResponseEntity.ok(doctorService.getAllDoctors(pageable));
     }
 
+    // Cursor-based listing: constant cost per page, no total count
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'PATIENT')")
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<DoctorResponse>> scrollDoctors(@RequestParam(required = false) String cursor,
+                                                                    @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(doctorService.scrollDoctors(cursor, size));
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'PATIENT')")
     @GetMapping("/search")
     public ResponseEntity<Page<DoctorResponse>> searchDoctors(@RequestParam String query, Pageable pageable) {
         return ResponseEntity.ok(doctorService.searchDoctors(query, pageable));
     }
 
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'PATIENT')")
+    @GetMapping("/{id}/working-hours")
+    public ResponseEntity<List<WorkingHoursResponse>> getWorkingHours(@PathVariable Long id) {
+        return ResponseEntity.ok(doctorAvailabilityService.getWorkingHours(id));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')") // ADMIN, DOCTOR (for their own)
+    @PutMapping("/{id}/working-hours")
+    public ResponseEntity<List<WorkingHoursResponse>> replaceWorkingHours(@PathVariable Long id, @Valid @RequestBody WeeklyScheduleRequest request) {
+        return ResponseEntity.ok(doctorAvailabilityService.replaceWorkingHours(id, request.getWorkingHours()));
+    }
+
+    // Open slots within the doctor's working hours, one week from now unless a range is given
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'PATIENT')")
+    @GetMapping("/{id}/slots")
+    public ResponseEntity<List<TimeSlotResponse>> getFreeSlots(@PathVariable Long id,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                               @RequestParam(defaultValue = "30") int duration) {
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        return ResponseEntity.ok(doctorAvailabilityService.findFreeSlots(id, start, to != null ? to : start.plusDays(7), duration));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'PATIENT')")
+    @GetMapping("/first-available")
+    public ResponseEntity<List<DoctorSlotResponse>> getFirstAvailable(@RequestParam String specialization,
+                                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                      @RequestParam(defaultValue = "30") int duration,
+                                                                      @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(doctorAvailabilityService.findFirstAvailable(specialization, from, duration, limit));
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/{id}")
-    public ResponseEntity<DoctorResponse> updateDoctor(@PathVariable Long id, @Valid @RequestBody DoctorRequest request) {
-        return ResponseEntity.ok(doctorService.updateDoctor(id, request));
+    public ResponseEntity<DoctorResponse> updateDoctor(@PathVariable Long id, @Valid @RequestBody DoctorRequest request,
+                                                       @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        DoctorResponse doctor = doctorService.updateDoctor(id, request, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(doctor.getVersion())).body(doctor);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
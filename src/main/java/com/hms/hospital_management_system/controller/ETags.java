@@ -0,0 +1,38 @@
+package com.hms.hospital_management_system.controller;
+
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Strong entity tags built from {@code @Version} columns: {@code "3"} for a patient or a doctor, {@code "3-1-7"}
+ * (appointment, patient, doctor) for an appointment, whose representation embeds the other two. An update's
+ * If-Match is checked against the first number, the version of the record being updated.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Long... versions) {
+        return Arrays.stream(versions).map(String::valueOf).collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    // Version an If-Match header requires, null when there is none or it is "*" (any version)
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"' || tag.indexOf(',') >= 0) {
+            throw new IllegalArgumentException("If-Match must be a single strong entity tag, as returned in the ETag header");
+        }
+        String version = tag.substring(1, tag.length() - 1);
+        int dash = version.indexOf('-');
+        try {
+            return Long.valueOf(dash < 0 ? version : version.substring(0, dash));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("If-Match must be a single strong entity tag, as returned in the ETag header");
+        }
+    }
+}
@@ -2,19 +2,27 @@ package com.hms.hospital_management_system.controller;
 
 
 
+import com.hms.hospital_management_system.dto.CursorPage;
 import com.hms.hospital_management_system.dto.PatientRequest;
 import com.hms.hospital_management_system.dto.PatientResponse;
+import com.hms.hospital_management_system.dto.PatientSummaryResponse;
 import com.hms.hospital_management_system.service.PatientService;
+import com.hms.hospital_management_system.service.search.PatientSearchQuery;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
 
 
 @Tag(name = "Patients", description = "Endpoints for managing patient records")
@@ -35,8 +43,14 @@ public class PatientController {
 
     @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR', 'PATIENT')")
     @GetMapping("/{id}")
-    public ResponseEntity<PatientResponse> getPatientById(@PathVariable Long id) {
-        return ResponseEntity.ok(patientService.getPatientById(id));
+    public ResponseEntity<PatientResponse> getPatientById(@PathVariable Long id, WebRequest request) {
+        // A revalidation reads only the version column, the record is loaded (or taken from the cache) when it changed
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(ETags.of(patientService.getPatientVersion(id)))) {
+            return null;
+        }
+        PatientResponse patient = patientService.getPatientById(id);
+        return ResponseEntity.ok().eTag(ETags.of(patient.getVersion())).body(patient);
     }
 
     @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
@@ -45,16 +59,40 @@ public class PatientController {
         return ResponseEntity.ok(patientService.getAllPatients(pageable));
     }
 
+    @Operation(summary = "List patients (summary view)", description = "Selected with ?view=summary: identifying and contact fields "
+            + "only, without medical history, allergies, gender or address")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<Page<PatientSummaryResponse>> getPatientSummaries(Pageable pageable) {
+        return ResponseEntity.ok(patientService.getPatientSummaries(pageable));
+    }
+
+    @Operation(summary = "Scroll through patients", description = "Cursor-based listing without a total count, pass nextCursor back to get the next page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<PatientResponse>> scrollPatients(@RequestParam(required = false) String cursor,
+                                                                      @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(patientService.scrollPatients(cursor, size));
+    }
+
+    @Operation(summary = "Search patients", description = "By name (prefix and sounds-alike), phone digits, email and date of birth, "
+            + "in any combination; results are ranked by relevance")
     @PreAuthorize("hasAnyRole('ADMIN', 'DOCTOR')")
     @GetMapping("/search")
-    public ResponseEntity<Page<PatientResponse>> searchPatients(@RequestParam String query, Pageable pageable) {
-        return ResponseEntity.ok(patientService.searchPatients(query, pageable));
+    public ResponseEntity<Page<PatientResponse>> searchPatients(@RequestParam(required = false) String query,
+                                                                @RequestParam(required = false) String phone,
+                                                                @RequestParam(required = false) String email,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateOfBirth,
+                                                                Pageable pageable) {
+        return ResponseEntity.ok(patientService.searchPatients(new PatientSearchQuery(query, phone, email, dateOfBirth), pageable));
     }
 
     @PreAuthorize("hasAnyRole('ADMIN')") // For simplicity, only admin can update/delete
     @PutMapping("/{id}")
-    public ResponseEntity<PatientResponse> updatePatient(@PathVariable Long id, @Valid @RequestBody PatientRequest request) {
-        return ResponseEntity.ok(patientService.updatePatient(id, request));
+    public ResponseEntity<PatientResponse> updatePatient(@PathVariable Long id, @Valid @RequestBody PatientRequest request,
+                                                         @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        PatientResponse patient = patientService.updatePatient(id, request, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(patient.getVersion())).body(patient);
     }
 
     @PreAuthorize("hasAnyRole('ADMIN')")
@@ -1,8 +1,11 @@
 package com.hms.hospital_management_system.dto;
 
 
+import com.hms.hospital_management_system.entity.Appointment;
 import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
 import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -28,6 +31,11 @@ public class AppointmentRequest {
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
     private LocalDateTime appointmentTime;
 
+    // Length of the visit, 30 minutes when omitted
+    @Min(value = 5, message = "Appointment duration must be at least 5 minutes")
+    @Max(value = Appointment.MAX_DURATION_MINUTES, message = "Appointment duration must be at most 240 minutes")
+    private Integer durationMinutes;
+
     @NotNull(message = "Appointment status is required")
     private AppointmentStatus status;
 
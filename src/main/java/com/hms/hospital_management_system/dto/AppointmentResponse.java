@@ -18,6 +18,9 @@ public class AppointmentResponse {
     private PatientResponse patient; // Nested DTO for patient details
     private DoctorResponse doctor;   // Nested DTO for doctor details
     private LocalDateTime appointmentTime;
+    private Integer durationMinutes;
+    private LocalDateTime endTime;
     private AppointmentStatus status;
     private String notes;
+    private Long version;
 }
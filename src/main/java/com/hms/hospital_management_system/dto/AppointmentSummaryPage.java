@@ -0,0 +1,26 @@
+package com.hms.hospital_management_system.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// A page of appointment summaries. Every patient and doctor on the page appears once, keyed by id, however many
+// of its appointments the page holds.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AppointmentSummaryPage {
+    private List<AppointmentSummaryResponse> content;
+    private Map<Long, PatientSummaryResponse> patients;
+    private Map<Long, DoctorSummaryResponse> doctors;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
@@ -0,0 +1,25 @@
+package com.hms.hospital_management_system.dto;
+
+
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Summary view of an appointment: the participants by id, resolved through the dictionaries of the enclosing page
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AppointmentSummaryResponse {
+    private Long id;
+    private Long patientId;
+    private Long doctorId;
+    private LocalDateTime appointmentTime;
+    private Integer durationMinutes;
+    private LocalDateTime endTime;
+    private AppointmentStatus status;
+}
@@ -11,5 +11,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class AuthResponse {
-    private String token;
-}
\ No newline at end of file
+    private String token; // Short-lived access token, sent as "Authorization: Bearer ..."
+    private String refreshToken; // Single use, exchanged at /api/auth/refresh for the next pair
+    private long expiresIn; // Lifetime of the access token in seconds
+}
\ No newline at end of file
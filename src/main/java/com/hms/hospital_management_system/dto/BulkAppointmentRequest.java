@@ -0,0 +1,22 @@
+package com.hms.hospital_management_system.dto;
+
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkAppointmentRequest {
+    // Items are validated one by one by the service, so a single bad item does not reject the whole batch
+    @NotEmpty(message = "At least one appointment is required")
+    @Size(max = 500, message = "At most 500 appointments can be scheduled at once")
+    private List<AppointmentRequest> appointments;
+}
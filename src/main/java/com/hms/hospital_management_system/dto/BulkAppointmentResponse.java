@@ -0,0 +1,19 @@
+package com.hms.hospital_management_system.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkAppointmentResponse {
+    private int scheduled;
+    private int rejected;
+    private List<BulkAppointmentResult> results; // One per requested item, in request order
+}
@@ -0,0 +1,18 @@
+package com.hms.hospital_management_system.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkAppointmentResult {
+    private int index; // Position of the item in the request
+    private boolean success;
+    private AppointmentResponse appointment; // Set when the item was scheduled
+    private String error; // Set when it was rejected
+}
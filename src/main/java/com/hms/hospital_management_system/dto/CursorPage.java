@@ -0,0 +1,19 @@
+package com.hms.hospital_management_system.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor; // Opaque token to pass back as ?cursor= for the next page, null on the last page
+    private boolean hasNext;
+}
@@ -20,4 +20,5 @@ public class DoctorResponse {
     private String specialization;
     private String qualifications;
     private String availability;
+    private Long version;
 }
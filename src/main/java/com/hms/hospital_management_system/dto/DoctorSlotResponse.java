@@ -0,0 +1,19 @@
+package com.hms.hospital_management_system.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DoctorSlotResponse {
+    private DoctorResponse doctor;
+    private LocalDateTime start; // First free slot of this doctor
+    private LocalDateTime end;
+}
@@ -0,0 +1,19 @@
+package com.hms.hospital_management_system.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Summary view of a doctor, as side-loaded next to appointment summaries
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DoctorSummaryResponse {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String specialization;
+}
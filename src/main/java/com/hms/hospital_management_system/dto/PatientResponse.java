@@ -24,4 +24,5 @@ public class PatientResponse {
     private String address;
     private String medicalHistory;
     private String allergies;
+    private Long version;
 }
@@ -0,0 +1,23 @@
+package com.hms.hospital_management_system.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Summary view of a patient: who they are and how to reach them, without the medical record or the address
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PatientSummaryResponse {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String phone;
+    private LocalDate dateOfBirth;
+}
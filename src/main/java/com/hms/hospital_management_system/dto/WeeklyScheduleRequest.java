@@ -0,0 +1,23 @@
+package com.hms.hospital_management_system.dto;
+
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WeeklyScheduleRequest {
+    // Replaces the doctor's whole week, an empty list means no working hours
+    @NotNull(message = "Working hours are required")
+    @Size(max = 50, message = "At most 50 working periods per week")
+    private List<@Valid WorkingHoursRequest> workingHours;
+}
@@ -5,17 +5,28 @@ package com.hms.hospital_management_system.entity;
 import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_appointment_time_id", columnList = "appointment_time, id"), // Keyset pagination
+        @Index(name = "idx_appointment_doctor_time", columnList = "doctor_id, appointment_time") // Overlap checks
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Appointment {
+    public static final int DEFAULT_DURATION_MINUTES = 30;
+    public static final int MAX_DURATION_MINUTES = 240;
+
+    // Pooled sequence instead of IDENTITY so ids are known before the insert and inserts can be JDBC batched
+    // (MySQL has no sequences, Hibernate emulates this one with an appointment_seq table)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_seq")
+    @SequenceGenerator(name = "appointment_seq", sequenceName = "appointment_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -29,9 +40,32 @@ public class Appointment {
     @Column(nullable = false)
     private LocalDateTime appointmentTime;
 
+    @Column(nullable = false)
+    @ColumnDefault("30")
+    @Builder.Default
+    private Integer durationMinutes = DEFAULT_DURATION_MINUTES;
+
+    // Always appointmentTime + durationMinutes, stored so overlap checks are plain comparisons on indexed columns.
+    // Nullable only for rows written before appointments had a duration, the README's upgrade steps fill those in
+    private LocalDateTime endTime;
+
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
     private AppointmentStatus status;
 
     private String notes;
+
+    // Incremented by Hibernate on every update; source of the ETags and of the optimistic locking on PUT
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @PrePersist
+    @PreUpdate
+    void syncEndTime() {
+        if (durationMinutes == null) {
+            durationMinutes = DEFAULT_DURATION_MINUTES;
+        }
+        endTime = appointmentTime.plusMinutes(durationMinutes);
+    }
 }
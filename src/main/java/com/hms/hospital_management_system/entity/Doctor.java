@@ -32,4 +32,9 @@ public class Doctor {
 
     private String qualifications;
     private String availability; // Simple string for availability (e.g., "Mon-Fri 9-5")
+
+    // Incremented by Hibernate on every update; source of the ETags and of the optimistic locking on PUT
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
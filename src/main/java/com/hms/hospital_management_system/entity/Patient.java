@@ -36,4 +36,9 @@ public class Patient {
     private String address;
     private String medicalHistory;
     private String allergies;
+
+    // Incremented by Hibernate on every update; source of the ETags and of the optimistic locking on PUT
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
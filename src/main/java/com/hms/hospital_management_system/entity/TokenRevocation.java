@@ -0,0 +1,42 @@
+package com.hms.hospital_management_system.entity;
+
+
+
+import com.hms.hospital_management_system.entity.enums.RevocationType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted copy of the in-memory revocation list (see {@code TokenRevocationRegistry}), so revocations survive a
+ * restart and reach the other instances. Rows are only needed until the tokens they cover have expired.
+ */
+@Entity
+@Table(name = "token_revocations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_token_revocation", columnNames = {"type", "revokedValue"}),
+        indexes = @Index(name = "idx_token_revocation_expires", columnList = "expiresAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RevocationType type;
+
+    // The token id (jti) of a TOKEN revocation, the user's email for a USER revocation
+    @Column(nullable = false)
+    private String revokedValue;
+
+    // USER revocations: tokens issued before this instant (epoch millis) are rejected
+    private Long notBefore;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
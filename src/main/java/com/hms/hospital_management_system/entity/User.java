@@ -15,6 +15,8 @@ import java.util.List;
 @Entity
 @Table(name = "users") // 'user' is a reserved keyword in some DBs
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 @Builder
 public class User implements UserDetails {
 
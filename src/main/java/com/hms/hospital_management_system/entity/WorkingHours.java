@@ -0,0 +1,36 @@
+package com.hms.hospital_management_system.entity;
+
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+// One working period of a doctor on a day of the week, e.g. MONDAY 09:00-12:30
+@Entity
+@Table(name = "doctor_working_hours")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WorkingHours {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id", nullable = false)
+    private Doctor doctor;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private DayOfWeek dayOfWeek;
+
+    @Column(nullable = false)
+    private LocalTime startTime;
+
+    @Column(nullable = false)
+    private LocalTime endTime;
+}
@@ -0,0 +1,8 @@
+package com.hms.hospital_management_system.entity.enums;
+
+
+
+public enum RevocationType {
+    TOKEN, // A single access token, by its jti (logout)
+    USER   // Every token issued to a user up to a point in time
+}
@@ -3,12 +3,25 @@ package com.hms.hospital_management_system.mapper;
 
 import com.hms.hospital_management_system.dto.AppointmentRequest;
 import com.hms.hospital_management_system.dto.AppointmentResponse;
+import com.hms.hospital_management_system.dto.AppointmentSummaryPage;
+import com.hms.hospital_management_system.dto.AppointmentSummaryResponse;
+import com.hms.hospital_management_system.dto.DoctorResponse;
+import com.hms.hospital_management_system.dto.PatientResponse;
 import com.hms.hospital_management_system.entity.Appointment;
 import com.hms.hospital_management_system.entity.Doctor;
 import com.hms.hospital_management_system.entity.Patient;
+import com.hms.hospital_management_system.repository.projection.AppointmentSnapshot;
+import com.hms.hospital_management_system.repository.projection.AppointmentSummaryRow;
+import com.hms.hospital_management_system.repository.projection.DoctorSummaryRow;
+import com.hms.hospital_management_system.repository.projection.PatientSearchRow;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
 @Component
 @RequiredArgsConstructor
 public class AppointmentMapper {
@@ -21,27 +34,120 @@ public class AppointmentMapper {
                 .patient(patient)
                 .doctor(doctor)
                 .appointmentTime(request.getAppointmentTime())
+                .durationMinutes(durationOf(request))
+                .endTime(request.getAppointmentTime().plusMinutes(durationOf(request)))
                 .status(request.getStatus())
                 .notes(request.getNotes())
                 .build();
     }
 
     public AppointmentResponse toDto(Appointment appointment) {
+        return toDto(appointment, patientMapper.toDto(appointment.getPatient()), doctorMapper.toDto(appointment.getDoctor()));
+    }
+
+    // For callers that already hold the patient and doctor DTOs, avoids initializing the lazy associations
+    public AppointmentResponse toDto(Appointment appointment, PatientResponse patient, DoctorResponse doctor) {
         return AppointmentResponse.builder()
                 .id(appointment.getId())
-                .patient(patientMapper.toDto(appointment.getPatient()))
-                .doctor(doctorMapper.toDto(appointment.getDoctor()))
+                .patient(patient)
+                .doctor(doctor)
                 .appointmentTime(appointment.getAppointmentTime())
+                .durationMinutes(appointment.getDurationMinutes())
+                .endTime(appointment.getEndTime())
                 .status(appointment.getStatus())
                 .notes(appointment.getNotes())
+                .version(appointment.getVersion())
+                .build();
+    }
+
+    public AppointmentResponse toDto(AppointmentSnapshot snapshot, PatientResponse patient, DoctorResponse doctor) {
+        return AppointmentResponse.builder()
+                .id(snapshot.id())
+                .patient(patient)
+                .doctor(doctor)
+                .appointmentTime(snapshot.appointmentTime())
+                .durationMinutes(snapshot.durationMinutes())
+                .endTime(snapshot.endTime())
+                .status(snapshot.status())
+                .notes(snapshot.notes())
+                .version(snapshot.version())
+                .build();
+    }
+
+    public AppointmentSummaryResponse toSummary(AppointmentSummaryRow row) {
+        return AppointmentSummaryResponse.builder()
+                .id(row.id())
+                .patientId(row.patientId())
+                .doctorId(row.doctorId())
+                .appointmentTime(row.appointmentTime())
+                .durationMinutes(row.durationMinutes())
+                .endTime(row.endTime())
+                .status(row.status())
+                .build();
+    }
+
+    public AppointmentSummaryResponse toSummary(AppointmentSnapshot snapshot) {
+        return AppointmentSummaryResponse.builder()
+                .id(snapshot.id())
+                .patientId(snapshot.patientId())
+                .doctorId(snapshot.doctorId())
+                .appointmentTime(snapshot.appointmentTime())
+                .durationMinutes(snapshot.durationMinutes())
+                .endTime(snapshot.endTime())
+                .status(snapshot.status())
+                .build();
+    }
+
+    public AppointmentSummaryPage toSummaryPage(Page<AppointmentSummaryResponse> page, List<PatientSearchRow> patients,
+                                                List<DoctorSummaryRow> doctors) {
+        return AppointmentSummaryPage.builder()
+                .content(page.getContent())
+                .patients(patients.stream().collect(Collectors.toMap(PatientSearchRow::id, patientMapper::toSummary,
+                        (first, second) -> first, TreeMap::new)))
+                .doctors(doctors.stream().collect(Collectors.toMap(DoctorSummaryRow::id, doctorMapper::toSummary,
+                        (first, second) -> first, TreeMap::new)))
+                .page(page.getNumber())
+                .size(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
                 .build();
     }
 
+    // Reads only the ids of the associations, so lazy proxies stay uninitialized
+    public AppointmentSnapshot toSnapshot(Appointment appointment) {
+        return new AppointmentSnapshot(
+                appointment.getId(),
+                appointment.getPatient().getId(),
+                appointment.getDoctor().getId(),
+                appointment.getAppointmentTime(),
+                appointment.getDurationMinutes(),
+                appointment.getEndTime(),
+                appointment.getStatus(),
+                appointment.getNotes(),
+                appointment.getVersion());
+    }
+
     public void updateAppointmentFromDto(AppointmentRequest request, Appointment appointment, Patient patient, Doctor doctor) {
         appointment.setPatient(patient);
         appointment.setDoctor(doctor);
+        int durationMinutes = durationOf(request, appointment);
         appointment.setAppointmentTime(request.getAppointmentTime());
+        appointment.setDurationMinutes(durationMinutes);
+        appointment.setEndTime(request.getAppointmentTime().plusMinutes(durationMinutes));
         appointment.setStatus(request.getStatus());
         appointment.setNotes(request.getNotes());
     }
+
+    // Requested length of the visit, falling back to the default when the client did not specify one
+    public int durationOf(AppointmentRequest request) {
+        return request.getDurationMinutes() != null ? request.getDurationMinutes() : Appointment.DEFAULT_DURATION_MINUTES;
+    }
+
+    // Length of the visit after an update: a request that leaves the duration out keeps the stored one
+    public int durationOf(AppointmentRequest request, Appointment appointment) {
+        if (request.getDurationMinutes() == null && appointment.getDurationMinutes() != null) {
+            return appointment.getDurationMinutes();
+        }
+        return durationOf(request);
+    }
 }
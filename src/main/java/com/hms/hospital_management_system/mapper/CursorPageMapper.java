@@ -0,0 +1,86 @@
+package com.hms.hospital_management_system.mapper;
+
+
+import com.hms.hospital_management_system.dto.CursorPage;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+// Converts keyset windows to cursor pages, the cursor being the keys of the last row encoded as an opaque token
+@Component
+public class CursorPageMapper {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Keys of the supported scroll orders and their types, a cursor has to carry exactly the keys of its order
+    public static final Map<String, Class<?>> BY_ID = Map.of("id", Long.class);
+    public static final Map<String, Class<?>> BY_TIME_AND_ID = Map.of("appointmentTime", LocalDateTime.class, "id", Long.class);
+
+    public <E, D> CursorPage<D> toDto(Window<E> window, Function<E, D> mapper) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            nextCursor = encode((KeysetScrollPosition) window.positionAt(window.size() - 1));
+        }
+        return CursorPage.<D>builder()
+                .content(window.map(mapper).getContent())
+                .nextCursor(nextCursor)
+                .hasNext(nextCursor != null)
+                .build();
+    }
+
+    // Throws IllegalArgumentException (400) for anything but a cursor of the expected keys, a cursor from another
+    // endpoint or with a key missing would otherwise only fail inside the keyset query
+    public ScrollPosition toScrollPosition(String cursor, Map<String, Class<?>> expectedKeys) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            for (String key : new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split(";")) {
+                String[] parts = key.split(":", 3);
+                keys.put(parts[0], switch (parts[1]) {
+                    case "L" -> Long.valueOf(parts[2]);
+                    case "T" -> LocalDateTime.parse(parts[2]);
+                    default -> throw new IllegalArgumentException();
+                });
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        if (!keys.keySet().equals(expectedKeys.keySet())
+                || !expectedKeys.entrySet().stream().allMatch(key -> key.getValue().isInstance(keys.get(key.getKey())))) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    public Limit toLimit(int size) {
+        return Limit.of(Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+
+    private String encode(KeysetScrollPosition position) {
+        StringJoiner keys = new StringJoiner(";");
+        position.getKeys().forEach((name, value) -> {
+            String type = switch (value) {
+                case Long ignored -> "L";
+                case LocalDateTime ignored -> "T";
+                default -> throw new IllegalStateException("Unsupported cursor key type: " + value.getClass());
+            };
+            keys.add(name + ":" + type + ":" + value);
+        });
+        return ENCODER.encodeToString(keys.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
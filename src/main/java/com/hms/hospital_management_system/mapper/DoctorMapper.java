@@ -3,7 +3,9 @@ package com.hms.hospital_management_system.mapper;
 
 import com.hms.hospital_management_system.dto.DoctorRequest;
 import com.hms.hospital_management_system.dto.DoctorResponse;
+import com.hms.hospital_management_system.dto.DoctorSummaryResponse;
 import com.hms.hospital_management_system.entity.Doctor;
+import com.hms.hospital_management_system.repository.projection.DoctorSummaryRow;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -31,6 +33,16 @@ public class DoctorMapper {
                 .specialization(doctor.getSpecialization())
                 .qualifications(doctor.getQualifications())
                 .availability(doctor.getAvailability())
+                .version(doctor.getVersion())
+                .build();
+    }
+
+    public DoctorSummaryResponse toSummary(DoctorSummaryRow row) {
+        return DoctorSummaryResponse.builder()
+                .id(row.id())
+                .firstName(row.firstName())
+                .lastName(row.lastName())
+                .specialization(row.specialization())
                 .build();
     }
 
@@ -43,4 +55,4 @@ public class DoctorMapper {
         doctor.setQualifications(request.getQualifications());
         doctor.setAvailability(request.getAvailability());
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -3,7 +3,9 @@ package com.hms.hospital_management_system.mapper;
 
 import com.hms.hospital_management_system.dto.PatientRequest;
 import com.hms.hospital_management_system.dto.PatientResponse;
+import com.hms.hospital_management_system.dto.PatientSummaryResponse;
 import com.hms.hospital_management_system.entity.Patient;
+import com.hms.hospital_management_system.repository.projection.PatientSearchRow;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -35,6 +37,18 @@ public class PatientMapper {
                 .address(patient.getAddress())
                 .medicalHistory(patient.getMedicalHistory())
                 .allergies(patient.getAllergies())
+                .version(patient.getVersion())
+                .build();
+    }
+
+    public PatientSummaryResponse toSummary(PatientSearchRow row) {
+        return PatientSummaryResponse.builder()
+                .id(row.id())
+                .firstName(row.firstName())
+                .lastName(row.lastName())
+                .email(row.email())
+                .phone(row.phone())
+                .dateOfBirth(row.dateOfBirth())
                 .build();
     }
 
@@ -0,0 +1,29 @@
+package com.hms.hospital_management_system.mapper;
+
+
+import com.hms.hospital_management_system.dto.WorkingHoursRequest;
+import com.hms.hospital_management_system.dto.WorkingHoursResponse;
+import com.hms.hospital_management_system.entity.Doctor;
+import com.hms.hospital_management_system.entity.WorkingHours;
+import org.springframework.stereotype.Component;
+
+@Component
+public class WorkingHoursMapper {
+
+    public WorkingHours toEntity(WorkingHoursRequest request, Doctor doctor) {
+        return WorkingHours.builder()
+                .doctor(doctor)
+                .dayOfWeek(request.getDayOfWeek())
+                .startTime(request.getStartTime())
+                .endTime(request.getEndTime())
+                .build();
+    }
+
+    public WorkingHoursResponse toDto(WorkingHours workingHours) {
+        return WorkingHoursResponse.builder()
+                .dayOfWeek(workingHours.getDayOfWeek())
+                .startTime(workingHours.getStartTime())
+                .endTime(workingHours.getEndTime())
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.hms.hospital_management_system.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Business counters that a timer around a method cannot tell apart: why a booking was rejected and why a
+ * request failed to authenticate. Counters are looked up by tag on every call, Micrometer caches the meters.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplicationMetrics {
+
+    public static final String BOOKING_CONFLICTS = "hms.appointments.conflicts";
+    public static final String AUTH_FAILURES = "hms.auth.failures";
+
+    private final MeterRegistry meterRegistry;
+
+    // source: index (in-memory schedule), database (exists probe) or batch (bulk scheduling)
+    public void bookingConflict(String source) {
+        Counter.builder(BOOKING_CONFLICTS)
+                .description("Bookings rejected because the doctor was already booked")
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // reason: bad_credentials, expired_token, invalid_token or revoked_token
+    public void authFailure(String reason) {
+        Counter.builder(AUTH_FAILURES)
+                .description("Failed logins and rejected bearer tokens")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+}
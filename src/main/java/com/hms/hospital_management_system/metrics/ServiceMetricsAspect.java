@@ -0,0 +1,62 @@
+package com.hms.hospital_management_system.metrics;
+
+import com.hms.hospital_management_system.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of the appointment, patient, doctor and auth services as {@code hms.service.calls},
+ * tagged with the service, the method and how the call ended. Methods answered by the Spring cache never reach
+ * the service and are only visible in the {@code cache.gets} metric.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    public static final String SERVICE_CALLS = "hms.service.calls";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.hms.hospital_management_system.service.AppointmentService.*(..))"
+            + " || execution(public * com.hms.hospital_management_system.service.PatientService.*(..))"
+            + " || execution(public * com.hms.hospital_management_system.service.DoctorService.*(..))"
+            + " || execution(public * com.hms.hospital_management_system.service.auth.AuthService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            outcome = outcomeOf(ex);
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder(SERVICE_CALLS)
+                    .description("Service method invocations")
+                    .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    // Client errors (400, 404, 401) are kept apart from genuine failures
+    private static String outcomeOf(Throwable ex) {
+        if (ex instanceof IllegalArgumentException) {
+            return "rejected";
+        }
+        if (ex instanceof ResourceNotFoundException) {
+            return "not_found";
+        }
+        if (ex instanceof AuthenticationException) {
+            return "unauthorized";
+        }
+        return "error";
+    }
+}
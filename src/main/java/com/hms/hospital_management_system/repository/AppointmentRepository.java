@@ -3,19 +3,109 @@ package com.hms.hospital_management_system.repository;
 
 import com.hms.hospital_management_system.entity.Appointment;
 import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.repository.projection.AppointmentExportRow;
+import com.hms.hospital_management_system.repository.projection.AppointmentSnapshot;
+import com.hms.hospital_management_system.repository.projection.AppointmentSummaryRow;
+import com.hms.hospital_management_system.repository.projection.AppointmentVersions;
+import com.hms.hospital_management_system.repository.projection.BookedSlot;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
-    // Find appointments for a specific doctor within a time range (for availability check)
-    List<Appointment> findByDoctorIdAndAppointmentTimeBetweenAndStatusNot(Long doctorId, LocalDateTime start, LocalDateTime end, AppointmentStatus status);
+    // True interval overlap: a booking [s, e) clashes with [start, end) when s < end and e > start. No booking lasts
+    // longer than Appointment.MAX_DURATION_MINUTES, so the extra s > earliestStart bound keeps the probe to a short
+    // range of the (doctor_id, appointment_time) index, and exists stops at the first match instead of loading rows.
+    @Query("select exists (select 1 from Appointment a where a.doctor.id = :doctorId " +
+            "and a.appointmentTime > :earliestStart and a.appointmentTime < :end and a.endTime > :start " +
+            "and a.status <> :excludedStatus and (:excludedId is null or a.id <> :excludedId))")
+    boolean existsOverlapping(@Param("doctorId") Long doctorId, @Param("earliestStart") LocalDateTime earliestStart,
+                              @Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                              @Param("excludedStatus") AppointmentStatus excludedStatus, @Param("excludedId") Long excludedId);
+
+    // Bookings from a point in time onwards, used to warm the in-memory doctor schedules
+    @Query("select a.id as id, a.doctor.id as doctorId, a.appointmentTime as appointmentTime, a.endTime as endTime, " +
+            "a.status as status from Appointment a where a.appointmentTime >= :from and a.status <> :excludedStatus")
+    List<BookedSlot> findBookedSlotsFrom(@Param("from") LocalDateTime from, @Param("excludedStatus") AppointmentStatus excludedStatus);
+
+    // A doctor's bookings starting in [from, to), so a batch of new appointments is checked with a single query per doctor
+    @Query("select a.id as id, a.doctor.id as doctorId, a.appointmentTime as appointmentTime, a.endTime as endTime, " +
+            "a.status as status from Appointment a where a.doctor.id = :doctorId " +
+            "and a.appointmentTime >= :from and a.appointmentTime < :to and a.status <> :excludedStatus")
+    List<BookedSlot> findBookedSlotsOfDoctorBetween(@Param("doctorId") Long doctorId, @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to, @Param("excludedStatus") AppointmentStatus excludedStatus);
+
+    // Versions behind an appointment's ETag, its representation embeds the patient and the doctor
+    @Query("select new com.hms.hospital_management_system.repository.projection.AppointmentVersions(" +
+            "a.version, p.version, d.version) from Appointment a join a.patient p join a.doctor d where a.id = :id")
+    Optional<AppointmentVersions> findVersionsById(@Param("id") Long id);
+
+    // Listing queries that load the patient and doctor in the same select, so mapping a page to DTOs
+    // costs one query plus the count instead of 1 + 2N
+    @EntityGraph(attributePaths = {"patient", "doctor"})
+    @Query("select a from Appointment a")
+    Page<Appointment> findAllWithPatientAndDoctor(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"patient", "doctor"})
+    Page<Appointment> findWithPatientAndDoctorByPatientId(Long patientId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"patient", "doctor"})
+    Page<Appointment> findWithPatientAndDoctorByDoctorId(Long doctorId, Pageable pageable);
+
+    // Summary view: only the columns of the appointment row itself, the participants by foreign key without a join
+    @Query(value = "select new com.hms.hospital_management_system.repository.projection.AppointmentSummaryRow(" +
+            "a.id, a.patient.id, a.doctor.id, a.appointmentTime, a.durationMinutes, a.endTime, a.status) from Appointment a",
+            countQuery = "select count(a) from Appointment a")
+    Page<AppointmentSummaryRow> findAllSummaries(Pageable pageable);
+
+    @Query(value = "select new com.hms.hospital_management_system.repository.projection.AppointmentSummaryRow(" +
+            "a.id, a.patient.id, a.doctor.id, a.appointmentTime, a.durationMinutes, a.endTime, a.status) " +
+            "from Appointment a where a.patient.id = :patientId",
+            countQuery = "select count(a) from Appointment a where a.patient.id = :patientId")
+    Page<AppointmentSummaryRow> findSummariesByPatientId(@Param("patientId") Long patientId, Pageable pageable);
+
+    @Query(value = "select new com.hms.hospital_management_system.repository.projection.AppointmentSummaryRow(" +
+            "a.id, a.patient.id, a.doctor.id, a.appointmentTime, a.durationMinutes, a.endTime, a.status) " +
+            "from Appointment a where a.doctor.id = :doctorId",
+            countQuery = "select count(a) from Appointment a where a.doctor.id = :doctorId")
+    Page<AppointmentSummaryRow> findSummariesByDoctorId(@Param("doctorId") Long doctorId, Pageable pageable);
+
+    // Keyset (cursor) scrolling on (appointmentTime, id): no OFFSET and no COUNT, so deep pages cost the same as the first
+    @EntityGraph(attributePaths = {"patient", "doctor"})
+    Window<Appointment> findAllByOrderByAppointmentTimeAscIdAsc(ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"patient", "doctor"})
+    Window<Appointment> findByPatientIdOrderByAppointmentTimeAscIdAsc(Long patientId, ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = {"patient", "doctor"})
+    Window<Appointment> findByDoctorIdOrderByAppointmentTimeAscIdAsc(Long doctorId, ScrollPosition position, Limit limit);
+
+    // Keyset chunk of the export: the next rows after afterId in id order, as unmanaged DTOs. Each chunk is a short
+    // query of its own, so an export never holds a transaction or a connection while the client reads
+    @Query("select new com.hms.hospital_management_system.repository.projection.AppointmentExportRow(" +
+            "a.id, a.appointmentTime, a.endTime, a.status, a.notes, p.id, p.firstName, p.lastName, " +
+            "d.id, d.firstName, d.lastName, d.specialization) " +
+            "from Appointment a join a.patient p join a.doctor d where a.id > :afterId order by a.id")
+    List<AppointmentExportRow> findExportRowsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // Same kind of chunk for rebuilding the in-memory read model, no joins needed for the participant ids
+    @Query("select new com.hms.hospital_management_system.repository.projection.AppointmentSnapshot(" +
+            "a.id, a.patient.id, a.doctor.id, a.appointmentTime, a.durationMinutes, a.endTime, a.status, a.notes, a.version) " +
+            "from Appointment a where a.id > :afterId order by a.id")
+    List<AppointmentSnapshot> findSnapshotsAfter(@Param("afterId") Long afterId, Limit limit);
 
     // Find appointments by patient
     Page<Appointment> findByPatientId(Long patientId, Pageable pageable);
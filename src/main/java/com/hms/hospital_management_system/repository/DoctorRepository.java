@@ -2,11 +2,16 @@ package com.hms.hospital_management_system.repository;
 
 
 import com.hms.hospital_management_system.entity.Doctor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.hms.hospital_management_system.repository.projection.DoctorSummaryRow;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,5 +19,16 @@ import java.util.Optional;
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     Optional<Doctor> findByEmail(String email);
     List<Doctor> findBySpecializationContainingIgnoreCase(String specialization);
-    Page<Doctor> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCaseOrSpecializationContainingIgnoreCase(String firstName, String lastName, String specialization, Pageable pageable);
+
+    // Answers conditional GETs without reading the record itself
+    @Query("select d.version from Doctor d where d.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Summary view of the doctors referenced by a page of appointment summaries
+    @Query("select new com.hms.hospital_management_system.repository.projection.DoctorSummaryRow(" +
+            "d.id, d.firstName, d.lastName, d.specialization) from Doctor d where d.id in :ids")
+    List<DoctorSummaryRow> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset (cursor) scrolling on id, used for deep scrolls and exports
+    Window<Doctor> findAllByOrderByIdAsc(ScrollPosition position, Limit limit);
 }
@@ -2,15 +2,44 @@ package com.hms.hospital_management_system.repository;
 
 
 import com.hms.hospital_management_system.entity.Patient;
+import com.hms.hospital_management_system.repository.projection.PatientSearchRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     Optional<Patient> findByEmail(String email);
-    Page<Patient> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(String firstName, String lastName, Pageable pageable);
+
+    // Answers conditional GETs without reading the record itself
+    @Query("select p.version from Patient p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Keyset (cursor) scrolling on id, used for deep scrolls and exports
+    Window<Patient> findAllByOrderByIdAsc(ScrollPosition position, Limit limit);
+
+    // Summary view: the medical history, allergies and address columns are not read
+    @Query(value = "select new com.hms.hospital_management_system.repository.projection.PatientSearchRow(" +
+            "p.id, p.firstName, p.lastName, p.email, p.phone, p.dateOfBirth) from Patient p",
+            countQuery = "select count(p) from Patient p")
+    Page<PatientSearchRow> findAllSummaries(Pageable pageable);
+
+    @Query("select new com.hms.hospital_management_system.repository.projection.PatientSearchRow(" +
+            "p.id, p.firstName, p.lastName, p.email, p.phone, p.dateOfBirth) from Patient p where p.id in :ids")
+    List<PatientSearchRow> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset chunk of the searchable fields of every patient, in id order, to warm the search index
+    @Query("select new com.hms.hospital_management_system.repository.projection.PatientSearchRow(" +
+            "p.id, p.firstName, p.lastName, p.email, p.phone, p.dateOfBirth) from Patient p where p.id > :afterId order by p.id")
+    List<PatientSearchRow> findSearchRowsAfter(@Param("afterId") Long afterId, Limit limit);
 }
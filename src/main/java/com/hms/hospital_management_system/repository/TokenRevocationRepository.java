@@ -0,0 +1,28 @@
+package com.hms.hospital_management_system.repository;
+
+
+import com.hms.hospital_management_system.entity.TokenRevocation;
+import com.hms.hospital_management_system.entity.enums.RevocationType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    Optional<TokenRevocation> findByTypeAndRevokedValue(RevocationType type, String revokedValue);
+
+    List<TokenRevocation> findByExpiresAtAfter(LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from TokenRevocation t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
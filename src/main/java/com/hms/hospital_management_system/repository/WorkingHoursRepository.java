@@ -0,0 +1,21 @@
+package com.hms.hospital_management_system.repository;
+
+
+import com.hms.hospital_management_system.entity.WorkingHours;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WorkingHoursRepository extends JpaRepository<WorkingHours, Long> {
+    List<WorkingHours> findByDoctorIdOrderByDayOfWeekAscStartTimeAsc(Long doctorId);
+
+    // Single delete statement, the weekly schedule of a doctor is always replaced as a whole
+    @Modifying
+    @Query("delete from WorkingHours w where w.doctor.id = :doctorId")
+    void deleteByDoctorId(@Param("doctorId") Long doctorId);
+}
@@ -0,0 +1,22 @@
+package com.hms.hospital_management_system.repository.projection;
+
+
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+// Flat, unmanaged view of an appointment and its participants, one per exported line
+public record AppointmentExportRow(
+        Long id,
+        LocalDateTime appointmentTime,
+        LocalDateTime endTime,
+        AppointmentStatus status,
+        String notes,
+        Long patientId,
+        String patientFirstName,
+        String patientLastName,
+        Long doctorId,
+        String doctorFirstName,
+        String doctorLastName,
+        String doctorSpecialization) {
+}
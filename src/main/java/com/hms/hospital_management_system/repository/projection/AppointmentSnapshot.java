@@ -0,0 +1,19 @@
+package com.hms.hospital_management_system.repository.projection;
+
+
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+// State of an appointment with its participants by id only, as carried by appointment events and the read model
+public record AppointmentSnapshot(
+        Long id,
+        Long patientId,
+        Long doctorId,
+        LocalDateTime appointmentTime,
+        Integer durationMinutes,
+        LocalDateTime endTime,
+        AppointmentStatus status,
+        String notes,
+        Long version) {
+}
@@ -0,0 +1,17 @@
+package com.hms.hospital_management_system.repository.projection;
+
+
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+// The columns of an appointment behind the summary view: no notes, the participants by foreign key only
+public record AppointmentSummaryRow(
+        Long id,
+        Long patientId,
+        Long doctorId,
+        LocalDateTime appointmentTime,
+        Integer durationMinutes,
+        LocalDateTime endTime,
+        AppointmentStatus status) {
+}
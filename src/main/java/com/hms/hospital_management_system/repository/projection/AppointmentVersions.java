@@ -0,0 +1,6 @@
+package com.hms.hospital_management_system.repository.projection;
+
+
+// Versions of an appointment and of the patient and doctor embedded in its representation
+public record AppointmentVersions(Long appointment, Long patient, Long doctor) {
+}
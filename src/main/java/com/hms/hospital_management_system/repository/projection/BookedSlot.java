@@ -0,0 +1,15 @@
+package com.hms.hospital_management_system.repository.projection;
+
+
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+// Minimal view of an appointment, enough to rebuild the in-memory doctor schedules without loading entities
+public interface BookedSlot {
+    Long getId();
+    Long getDoctorId();
+    LocalDateTime getAppointmentTime();
+    LocalDateTime getEndTime();
+    AppointmentStatus getStatus();
+}
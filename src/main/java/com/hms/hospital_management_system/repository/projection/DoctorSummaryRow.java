@@ -0,0 +1,10 @@
+package com.hms.hospital_management_system.repository.projection;
+
+
+// The columns of a doctor behind the summary view
+public record DoctorSummaryRow(
+        Long id,
+        String firstName,
+        String lastName,
+        String specialization) {
+}
@@ -0,0 +1,15 @@
+package com.hms.hospital_management_system.repository.projection;
+
+
+import java.time.LocalDate;
+
+// The searchable fields of a patient, enough to rebuild the in-memory patient search index without loading entities.
+// Also the columns behind the patient summary view.
+public record PatientSearchRow(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        String phone,
+        LocalDate dateOfBirth) {
+}
@@ -1,11 +1,17 @@
 package com.hms.hospital_management_system.security;
 
+import com.hms.hospital_management_system.metrics.ApplicationMetrics;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,17 +24,29 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.ArrayList; 
 import java.util.Collection; 
+import java.util.List;
 import org.springframework.security.core.authority.SimpleGrantedAuthority; 
 
+@Slf4j
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final ApplicationMetrics applicationMetrics;
+    // When true, the principal is built from the verified claims alone and the users table is not queried
+    private final boolean stateless;
 
-    public JwtAuthenticationFilter(JwtService jwtService,UserDetailsService userDetailsService){
+    public JwtAuthenticationFilter(JwtService jwtService,UserDetailsService userDetailsService,
+                                   TokenRevocationRegistry tokenRevocationRegistry,
+                                   ApplicationMetrics applicationMetrics,
+                                   @Value("${jwt.stateless:false}") boolean stateless){
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.applicationMetrics = applicationMetrics;
+        this.stateless = stateless;
     }
 
     @Override
@@ -39,6 +57,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final Claims claims;
         final String userName;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -46,38 +65,66 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         jwt = authHeader.substring(7);
-        userName = jwtService.extractUsername(jwt);
+        try {
+            claims = jwtService.extractAllClaims(jwt); // verified once, then served from JwtService's cache
+        } catch (JwtException | IllegalArgumentException ex) {
+            // Left unauthenticated, protected endpoints answer 401 through the entry point
+            log.debug("Rejected bearer token ({})", ex.getClass().getSimpleName()); // The message may echo the token itself
+            applicationMetrics.authFailure(ex instanceof ExpiredJwtException ? "expired_token" : "invalid_token");
+            filterChain.doFilter(request, response);
+            return;
+        }
+        userName = claims.getSubject();
 
         if (userName != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (tokenRevocationRegistry.isRevoked(claims)) {
+                applicationMetrics.authFailure("revoked_token");
+                filterChain.doFilter(request, response);
+                return;
+            }
+            String roleFromJwt = claims.get("role", String.class);
+            if (stateless && roleFromJwt != null) {
+                // Signature and expiry were checked while parsing, so the claims can be trusted as they are
+                JwtPrincipal principal = new JwtPrincipal(claims.get("uid", Long.class), userName, roleFromJwt);
+                setAuthentication(request, principal, List.of(new SimpleGrantedAuthority(roleFromJwt)));
+                filterChain.doFilter(request, response);
+                return;
+            }
+
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(userName);
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 // --- CRITICAL CHANGE FOR ROLE EXTRACTION ---
-                String roleFromJwt = jwtService.extractClaim(jwt, claims -> claims.get("role", String.class));
                 Collection<SimpleGrantedAuthority> authorities = new ArrayList<>();
 
                 if (roleFromJwt != null) {
                     authorities.add(new SimpleGrantedAuthority(roleFromJwt));
-                    System.out.println("DEBUG: JwtAuthFilter: Extracted role from JWT: " + roleFromJwt); // DEBUG LINE
+                    log.debug("Role {} taken from the token", roleFromJwt);
                 } else {
                     // Fallback: If role is not in JWT, get from UserDetails (less ideal, but for robustness)
-                    System.out.println("DEBUG: JwtAuthFilter: Role not found in JWT. Using authorities from UserDetails."); // DEBUG LINE
+                    log.debug("Token carries no role, using the authorities of the loaded user");
                     authorities.addAll(userDetails.getAuthorities().stream()
                             .map(ga -> new SimpleGrantedAuthority(ga.getAuthority()))
                             .collect(java.util.stream.Collectors.toList()));
                 }
                 // --- END OF CRITICAL CHANGE ---
 
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        authorities // <--- THIS IS THE KEY: Use the authorities derived from JWT/UserDetails
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-                System.out.println("DEBUG: JwtAuthFilter: Authentication set for user: " + userName + " with authorities: " + SecurityContextHolder.getContext().getAuthentication().getAuthorities()); // DEBUG LINE
+                setAuthentication(request, userDetails, authorities); // <--- THIS IS THE KEY: Use the authorities derived from JWT/UserDetails
+            } else {
+                applicationMetrics.authFailure("invalid_token");
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    private void setAuthentication(HttpServletRequest request, Object principal, Collection<SimpleGrantedAuthority> authorities) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                authorities
+        );
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        log.debug("Authenticated {} with authorities {}", authToken.getName(), authorities); // Formatted only when DEBUG is on
+    }
 }
@@ -0,0 +1,13 @@
+package com.hms.hospital_management_system.security;
+
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+// Principal built purely from verified token claims, used when authentication runs in stateless mode
+public record JwtPrincipal(Long id, String email, String role) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,30 +1,83 @@
 package com.hms.hospital_management_system.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.hms.hospital_management_system.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
-import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+@Slf4j
 @Component
-public class JwtService {
+public class JwtService implements MeterBinder {
+
+    // Issue time in milliseconds: iat only has second precision, too coarse to tell a token issued right after a
+    // revocation from one issued right before it
+    public static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+
+    private final long JWT_EXPIRATION; // This should be in milliseconds, e.g., 1000 * 60 * 60 * 10 for 10 hours
+
+    // Decoding the secret and building the key/parser is done once, not on every token
+    private final Key signInKey;
+    private final JwtParser jwtParser;
+
+    // Verified claims keyed by a hash of the token, each entry living no longer than the token itself
+    private final Cache<String, Claims> claimsCache;
+
+    // Signature checks, set once the service has been bound to the meter registry
+    private volatile Timer verificationTimer;
+
+    public JwtService(@Value("${jwt.secret}") String secretKey,
+                      @Value("${jwt.expiration}") long jwtExpiration,
+                      @Value("${jwt.claims-cache.max-size:10000}") long claimsCacheMaxSize) {
+        this.JWT_EXPIRATION = jwtExpiration;
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+    }
 
-    @Value("${jwt.secret}")
-    private String SECRET_KEY;
+    // Publishes the claims cache hit ratio (cache.gets, cache=jwt-claims) and the hms.jwt.verification timer
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Same tag keys as the Spring caches, Prometheus rejects a meter name registered with different tag keys
+        CaffeineCacheMetrics.monitor(registry, claimsCache, "jwt-claims", "cache.manager", "jwtService", "name", "jwt-claims");
+        verificationTimer = Timer.builder("hms.jwt.verification")
+                .description("Parsing and signature verification of tokens missing from the claims cache")
+                .register(registry);
+    }
 
-    @Value("${jwt.expiration}")
-    private long JWT_EXPIRATION; // This should be in milliseconds, e.g., 1000 * 60 * 60 * 10 for 10 hours
+    // Lifetime of the access tokens issued, in milliseconds
+    public long getExpiration() {
+        return JWT_EXPIRATION;
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -35,6 +88,11 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
+    // Parses and verifies the token at most once while it is cached; invalid tokens throw and are never cached
+    public Claims extractAllClaims(String token) {
+        return claimsCache.get(hash(token), key -> parseClaims(token));
+    }
+
     // This is the primary method that should be called by AuthService for initial token generation
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
@@ -45,7 +103,8 @@ public class JwtService {
             // The role enum should have values like ADMIN, DOCTOR, PATIENT.
             // We prepend "ROLE_" here to match Spring Security's expected format.
             claims.put("role", "ROLE_" + user.getRole().name());
-            System.out.println("DEBUG: JwtService: Generated token with role: " + "ROLE_" + user.getRole().name()); // DEBUG LINE
+            claims.put("uid", user.getId()); // Lets stateless authentication identify the user without a lookup
+            log.debug("Generating token with role ROLE_{}", user.getRole());
         }
         // --- END OF CRITICAL CHANGE ---
 
@@ -56,40 +115,68 @@ public class JwtService {
             Map<String, Object> extraClaims,
             UserDetails userDetails
     ) {
+        long now = System.currentTimeMillis();
         return Jwts
                 .builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setId(UUID.randomUUID().toString()) // Lets a single token be revoked on logout
+                .setIssuedAt(new Date(now))
+                .claim(ISSUED_AT_MILLIS_CLAIM, now)
+                .setExpiration(new Date(now + JWT_EXPIRATION))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return (username.equals(userDetails.getUsername())) && !isTokenExpired(claims);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private Claims parseClaims(String token) {
+        Timer timer = verificationTimer;
+        if (timer == null) {
+            return jwtParser.parseClaimsJws(token).getBody();
+        }
+        return timer.record(() -> jwtParser.parseClaimsJws(token).getBody());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static final class UntilTokenExpires implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0; // Tokens without an expiration are verified every time
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
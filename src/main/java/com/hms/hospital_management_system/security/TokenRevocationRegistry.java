@@ -0,0 +1,164 @@
+package com.hms.hospital_management_system.security;
+
+
+import com.hms.hospital_management_system.entity.TokenRevocation;
+import com.hms.hospital_management_system.entity.enums.RevocationType;
+import com.hms.hospital_management_system.repository.TokenRevocationRepository;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access tokens, checked on every request without a database query.
+ * <p>
+ * Two kinds of revocation are kept: single tokens by their id (logout) and every token issued to a user up to a
+ * point in time (administrative lock out). Revoked token ids sit behind a Bloom filter, so the common case of a
+ * token that was never revoked costs a few hashes and no map lookup. Each revocation only matters until the tokens
+ * it covers have expired, which with short-lived access tokens keeps the structures small.
+ * <p>
+ * Revocations are written to the database as they happen and reloaded periodically, which restores them after a
+ * restart and picks up those made by other instances within {@code jwt.revocation.sync-interval-ms}.
+ */
+@Component
+public class TokenRevocationRegistry implements SmartInitializingSingleton {
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final long accessTokenLifetimeMillis;
+    private final int bloomFilterBits;
+
+    // Subject (email) -> tokens issued up to this instant (epoch millis) are rejected
+    private final Map<String, Long> notBeforeBySubject = new ConcurrentHashMap<>();
+    // Revoked token id (jti) -> expiry of that token (epoch millis)
+    private final Map<String, Long> revokedTokenIds = new ConcurrentHashMap<>();
+    // Holds every key of revokedTokenIds, rebuilt whenever expired ids are dropped
+    private volatile BloomFilter revokedTokenFilter;
+
+    public TokenRevocationRegistry(TokenRevocationRepository tokenRevocationRepository,
+                                   @Value("${jwt.expiration}") long accessTokenLifetimeMillis,
+                                   @Value("${jwt.revocation.bloom-filter-bits:1048576}") int bloomFilterBits) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.accessTokenLifetimeMillis = accessTokenLifetimeMillis;
+        this.bloomFilterBits = bloomFilterBits;
+        this.revokedTokenFilter = new BloomFilter(bloomFilterBits);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        sync();
+    }
+
+    public void revokeAllTokens(String subject) {
+        // Compared with the millisecond issue time of the tokens, so a login right after the revocation is not caught
+        long notBefore = System.currentTimeMillis();
+        try {
+            saveUserRevocation(subject, notBefore);
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent revocation of the same user inserted the row between our lookup and insert, update that one
+            saveUserRevocation(subject, notBefore);
+        }
+        notBeforeBySubject.merge(subject, notBefore, Math::max);
+    }
+
+    // Idempotent: a repeated or retried logout revokes the same token again, its row only has to exist once
+    public void revokeToken(String tokenId, Date expiresAt) {
+        if (tokenRevocationRepository.findByTypeAndRevokedValue(RevocationType.TOKEN, tokenId).isEmpty()) {
+            try {
+                tokenRevocationRepository.save(TokenRevocation.builder()
+                        .type(RevocationType.TOKEN)
+                        .revokedValue(tokenId)
+                        .expiresAt(toDateTime(expiresAt.getTime()))
+                        .build());
+            } catch (DataIntegrityViolationException ex) {
+                // Inserted by a concurrent logout with the same token
+            }
+        }
+        addRevokedTokenId(tokenId, expiresAt.getTime());
+    }
+
+    public boolean isRevoked(Claims claims) {
+        String tokenId = claims.getId();
+        if (tokenId != null && revokedTokenFilter.mightContain(tokenId) && revokedTokenIds.containsKey(tokenId)) {
+            return true;
+        }
+        Long notBefore = notBeforeBySubject.get(claims.getSubject());
+        if (notBefore == null) {
+            return false;
+        }
+        Long issuedAt = issuedAtMillis(claims);
+        return issuedAt == null || issuedAt <= notBefore;
+    }
+
+    // Picks up revocations made by other instances and forgets those whose tokens have all expired
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:30000}",
+            initialDelayString = "${jwt.revocation.sync-interval-ms:30000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        tokenRevocationRepository.deleteExpired(now);
+        apply(tokenRevocationRepository.findByExpiresAtAfter(now), System.currentTimeMillis());
+    }
+
+    // Number of revoked token ids held in memory, exposed for tests and diagnostics
+    int revokedTokenCount() {
+        return revokedTokenIds.size();
+    }
+
+    private void saveUserRevocation(String subject, long notBefore) {
+        TokenRevocation revocation = tokenRevocationRepository.findByTypeAndRevokedValue(RevocationType.USER, subject)
+                .orElseGet(() -> TokenRevocation.builder().type(RevocationType.USER).revokedValue(subject).build());
+        long effectiveNotBefore = revocation.getNotBefore() != null ? Math.max(revocation.getNotBefore(), notBefore) : notBefore;
+        revocation.setNotBefore(effectiveNotBefore);
+        revocation.setExpiresAt(toDateTime(effectiveNotBefore + accessTokenLifetimeMillis));
+        tokenRevocationRepository.save(revocation);
+    }
+
+    // Synchronized with addRevokedTokenId, so no id is added to the old filter while the new one is being built
+    private synchronized void apply(List<TokenRevocation> active, long now) {
+        for (TokenRevocation revocation : active) {
+            if (revocation.getType() == RevocationType.USER) {
+                notBeforeBySubject.merge(revocation.getRevokedValue(), revocation.getNotBefore(), Math::max);
+            } else {
+                revokedTokenIds.putIfAbsent(revocation.getRevokedValue(), toEpochMillis(revocation.getExpiresAt()));
+            }
+        }
+        notBeforeBySubject.values().removeIf(notBefore -> notBefore + accessTokenLifetimeMillis < now);
+        revokedTokenIds.values().removeIf(expiresAt -> expiresAt < now);
+
+        BloomFilter filter = new BloomFilter(bloomFilterBits);
+        revokedTokenIds.keySet().forEach(filter::add);
+        revokedTokenFilter = filter;
+    }
+
+    private synchronized void addRevokedTokenId(String tokenId, long expiresAt) {
+        revokedTokenIds.put(tokenId, expiresAt);
+        revokedTokenFilter.add(tokenId);
+    }
+
+    // Tokens issued before the millisecond claim existed fall back to iat, truncated to the second: those issued in
+    // the second of a revocation count as issued before it
+    private static Long issuedAtMillis(Claims claims) {
+        Long issuedAt = claims.get(JwtService.ISSUED_AT_MILLIS_CLAIM, Long.class);
+        if (issuedAt != null) {
+            return issuedAt;
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : null;
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -3,48 +3,195 @@ package com.hms.hospital_management_system.service;
 
 import com.hms.hospital_management_system.dto.AppointmentRequest;
 import com.hms.hospital_management_system.dto.AppointmentResponse;
+import com.hms.hospital_management_system.dto.AppointmentSummaryPage;
+import com.hms.hospital_management_system.dto.AppointmentSummaryResponse;
+import com.hms.hospital_management_system.dto.BulkAppointmentResponse;
+import com.hms.hospital_management_system.dto.BulkAppointmentResult;
+import com.hms.hospital_management_system.dto.CursorPage;
+import com.hms.hospital_management_system.dto.DoctorResponse;
+import com.hms.hospital_management_system.dto.PatientResponse;
 import com.hms.hospital_management_system.entity.Appointment;
 import com.hms.hospital_management_system.entity.Doctor;
 import com.hms.hospital_management_system.entity.Patient;
 import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.exception.PreconditionFailedException;
 import com.hms.hospital_management_system.exception.ResourceNotFoundException;
 import com.hms.hospital_management_system.mapper.AppointmentMapper;
+import com.hms.hospital_management_system.mapper.CursorPageMapper;
+import com.hms.hospital_management_system.metrics.ApplicationMetrics;
 import com.hms.hospital_management_system.repository.AppointmentRepository;
 import com.hms.hospital_management_system.repository.DoctorRepository;
 import com.hms.hospital_management_system.repository.PatientRepository;
+import com.hms.hospital_management_system.repository.projection.AppointmentExportRow;
+import com.hms.hospital_management_system.repository.projection.AppointmentSnapshot;
+import com.hms.hospital_management_system.repository.projection.AppointmentVersions;
+import com.hms.hospital_management_system.repository.projection.BookedSlot;
+import com.hms.hospital_management_system.service.booking.BookingLockManager;
+import com.hms.hospital_management_system.service.booking.DoctorScheduleIndex;
+import com.hms.hospital_management_system.service.event.AppointmentEventLog;
+import com.hms.hospital_management_system.service.event.AppointmentEventType;
+import com.hms.hospital_management_system.service.event.AppointmentStreamHub;
+import com.hms.hospital_management_system.service.export.AppointmentExportWriter;
+import com.hms.hospital_management_system.service.export.ExportFormat;
+import com.hms.hospital_management_system.service.readmodel.AppointmentReadModel;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AppointmentService {
 
+    // Rows read per export query
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private final AppointmentRepository appointmentRepository;
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
+    private final PatientService patientService;
+    private final DoctorService doctorService;
     private final AppointmentMapper appointmentMapper;
+    private final CursorPageMapper cursorPageMapper;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final AppointmentEventLog appointmentEventLog;
+    private final AppointmentReadModel appointmentReadModel;
+    private final AppointmentStreamHub appointmentStreamHub;
+    private final BookingLockManager bookingLockManager;
+    private final AppointmentExportWriter appointmentExportWriter;
+    private final Validator validator;
+    private final ApplicationMetrics applicationMetrics;
+    private final PlatformTransactionManager transactionManager;
 
     @Transactional
     public AppointmentResponse createAppointment(AppointmentRequest request) {
-        Patient patient = patientRepository.findById(request.getPatientId())
-                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with ID: " + request.getPatientId()));
-        Doctor doctor = doctorRepository.findById(request.getDoctorId())
-                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with ID: " + request.getDoctorId()));
+        // Cached lookups (they throw when the record does not exist), the entities themselves are only referenced
+        PatientResponse patient = patientService.getPatientById(request.getPatientId());
+        DoctorResponse doctor = doctorService.getDoctorById(request.getDoctorId());
+
+        // Hold the doctor's slot until the transaction completes, so concurrent requests cannot both pass the check
+        LocalDateTime start = request.getAppointmentTime();
+        LocalDateTime end = start.plusMinutes(appointmentMapper.durationOf(request));
+        lockSlotUntilCompletion(doctor.getId(), start, end);
 
         // Basic availability check: Check for overlapping appointments for the same doctor
-        if (isDoctorBooked(doctor.getId(), request.getAppointmentTime())) {
+        if (isDoctorBooked(doctor.getId(), start, end, null)) {
             throw new IllegalArgumentException("Doctor is already booked at this time. Please choose another slot.");
         }
 
-        Appointment appointment = appointmentMapper.toEntity(request, patient, doctor);
+        Appointment appointment = appointmentMapper.toEntity(request,
+                patientRepository.getReferenceById(patient.getId()), doctorRepository.getReferenceById(doctor.getId()));
         Appointment savedAppointment = appointmentRepository.save(appointment);
-        return appointmentMapper.toDto(savedAppointment);
+        publishAfterCommit(AppointmentEventType.CREATED, savedAppointment, null);
+        return appointmentMapper.toDto(savedAppointment, patient, doctor);
+    }
+
+    // Schedules a whole batch in one transaction: two IN queries for the patients and doctors, one range query per
+    // doctor for conflicts and JDBC-batched inserts. Invalid or clashing items are reported and skipped, the rest are saved.
+    @Transactional
+    public BulkAppointmentResponse scheduleAppointments(List<AppointmentRequest> requests) {
+        String[] errors = new String[requests.size()];
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            errors[i] = validate(requests.get(i));
+            if (errors[i] == null) {
+                candidates.add(i);
+            }
+        }
+
+        Map<Long, Patient> patients = patientRepository.findAllById(candidates.stream()
+                        .map(i -> requests.get(i).getPatientId()).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Patient::getId, Function.identity()));
+        Map<Long, Doctor> doctors = doctorRepository.findAllById(candidates.stream()
+                        .map(i -> requests.get(i).getDoctorId()).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Doctor::getId, Function.identity()));
+
+        // Items are handled in (doctor, time) order, so concurrent batches always take the booking locks in the same order
+        candidates.sort(Comparator.comparing((Integer i) -> requests.get(i).getDoctorId())
+                .thenComparing(i -> requests.get(i).getAppointmentTime()));
+        Map<Long, List<Integer>> candidatesByDoctor = new LinkedHashMap<>();
+        for (int i : candidates) {
+            AppointmentRequest request = requests.get(i);
+            if (!patients.containsKey(request.getPatientId())) {
+                errors[i] = "Patient not found with ID: " + request.getPatientId();
+            } else if (!doctors.containsKey(request.getDoctorId())) {
+                errors[i] = "Doctor not found with ID: " + request.getDoctorId();
+            } else {
+                candidatesByDoctor.computeIfAbsent(request.getDoctorId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<Integer, Appointment> accepted = new TreeMap<>();
+        candidatesByDoctor.forEach((doctorId, indexes) -> {
+            LocalDateTime last = requests.get(indexes.get(0)).getAppointmentTime();
+            for (int i : indexes) {
+                AppointmentRequest request = requests.get(i);
+                LocalDateTime end = request.getAppointmentTime().plusMinutes(appointmentMapper.durationOf(request));
+                lockSlotUntilCompletion(doctorId, request.getAppointmentTime(), end);
+                last = end.isAfter(last) ? end : last;
+            }
+            NavigableMap<LocalDateTime, LocalDateTime> booked = findBookings(doctorId,
+                    requests.get(indexes.get(0)).getAppointmentTime(), last);
+            for (int i : indexes) {
+                AppointmentRequest request = requests.get(i);
+                LocalDateTime start = request.getAppointmentTime();
+                LocalDateTime end = start.plusMinutes(appointmentMapper.durationOf(request));
+                if (clashes(booked, start, end)) {
+                    applicationMetrics.bookingConflict("batch");
+                    errors[i] = "Doctor is already booked at this time. Please choose another slot.";
+                    continue;
+                }
+                accepted.put(i, appointmentMapper.toEntity(request, patients.get(request.getPatientId()), doctors.get(doctorId)));
+                if (request.getStatus() != AppointmentStatus.CANCELLED) {
+                    booked.merge(start, end, BinaryOperator.maxBy(Comparator.naturalOrder())); // Later items of the same batch must not clash with this one either
+                }
+            }
+        });
+
+        appointmentRepository.saveAll(accepted.values())
+                .forEach(appointment -> publishAfterCommit(AppointmentEventType.CREATED, appointment, null));
+
+        List<BulkAppointmentResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            Appointment appointment = accepted.get(i);
+            results.add(BulkAppointmentResult.builder()
+                    .index(i)
+                    .success(appointment != null)
+                    .appointment(appointment != null ? appointmentMapper.toDto(appointment) : null)
+                    .error(errors[i])
+                    .build());
+        }
+        return BulkAppointmentResponse.builder()
+                .scheduled(accepted.size())
+                .rejected(requests.size() - accepted.size())
+                .results(results)
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -54,86 +201,239 @@ public class AppointmentService {
         return appointmentMapper.toDto(appointment);
     }
 
+    // Version columns only, for conditional GETs
+    @Transactional(readOnly = true)
+    public AppointmentVersions getAppointmentVersions(Long id) {
+        return appointmentRepository.findVersionsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with ID: " + id));
+    }
+
     @Transactional(readOnly = true)
     public Page<AppointmentResponse> getAllAppointments(Pageable pageable) {
-        return appointmentRepository.findAll(pageable)
+        return appointmentRepository.findAllWithPatientAndDoctor(pageable)
                 .map(appointmentMapper::toDto);
     }
 
-    @Transactional(readOnly = true)
+    // Served from the in-memory read model, participants come from the patient and doctor caches. Sorts the model
+    // cannot answer go to the database, and so does everything while the model is unavailable.
     public Page<AppointmentResponse> getAppointmentsByPatient(Long patientId, Pageable pageable) {
-        if (!patientRepository.existsById(patientId)) {
-            throw new ResourceNotFoundException("Patient not found with ID: " + patientId);
-        }
-        return appointmentRepository.findByPatientId(patientId, pageable)
-                .map(appointmentMapper::toDto);
+        PatientResponse patient = patientService.getPatientById(patientId); // Throws when the patient does not exist, usually served from cache
+        return appointmentReadModel.findByPatient(patientId, pageable)
+                .map(page -> page.map(row -> appointmentMapper.toDto(row, patient, doctorService.getDoctorById(row.doctorId()))))
+                .orElseGet(() -> appointmentRepository.findWithPatientAndDoctorByPatientId(patientId, pageable)
+                        .map(appointmentMapper::toDto));
     }
 
-    @Transactional(readOnly = true)
     public Page<AppointmentResponse> getAppointmentsByDoctor(Long doctorId, Pageable pageable) {
-        if (!doctorRepository.existsById(doctorId)) {
-            throw new ResourceNotFoundException("Doctor not found with ID: " + doctorId);
-        }
-        return appointmentRepository.findByDoctorId(doctorId, pageable)
-                .map(appointmentMapper::toDto);
+        DoctorResponse doctor = doctorService.getDoctorById(doctorId); // Throws when the doctor does not exist, usually served from cache
+        return appointmentReadModel.findByDoctor(doctorId, pageable)
+                .map(page -> page.map(row -> appointmentMapper.toDto(row, patientService.getPatientById(row.patientId()), doctor)))
+                .orElseGet(() -> appointmentRepository.findWithPatientAndDoctorByDoctorId(doctorId, pageable)
+                        .map(appointmentMapper::toDto));
+    }
+
+    // Summary views of the listings above: no notes, and the participants by id. Each patient and doctor on the page
+    // is side-loaded once instead of being embedded in every row.
+    @Transactional(readOnly = true)
+    public AppointmentSummaryPage getAppointmentSummaries(Pageable pageable) {
+        return toSummaryPage(appointmentRepository.findAllSummaries(pageable).map(appointmentMapper::toSummary));
+    }
+
+    public AppointmentSummaryPage getAppointmentSummariesByPatient(Long patientId, Pageable pageable) {
+        patientService.getPatientById(patientId);
+        return toSummaryPage(appointmentReadModel.findByPatient(patientId, pageable)
+                .map(page -> page.map(appointmentMapper::toSummary))
+                .orElseGet(() -> appointmentRepository.findSummariesByPatientId(patientId, pageable).map(appointmentMapper::toSummary)));
+    }
+
+    public AppointmentSummaryPage getAppointmentSummariesByDoctor(Long doctorId, Pageable pageable) {
+        doctorService.getDoctorById(doctorId);
+        return toSummaryPage(appointmentReadModel.findByDoctor(doctorId, pageable)
+                .map(page -> page.map(appointmentMapper::toSummary))
+                .orElseGet(() -> appointmentRepository.findSummariesByDoctorId(doctorId, pageable).map(appointmentMapper::toSummary)));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentResponse> scrollAppointments(String cursor, int size) {
+        return cursorPageMapper.toDto(appointmentRepository.findAllByOrderByAppointmentTimeAscIdAsc(
+                cursorPageMapper.toScrollPosition(cursor, CursorPageMapper.BY_TIME_AND_ID), cursorPageMapper.toLimit(size)), appointmentMapper::toDto);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentResponse> scrollAppointmentsByPatient(Long patientId, String cursor, int size) {
+        patientService.getPatientById(patientId);
+        return cursorPageMapper.toDto(appointmentRepository.findByPatientIdOrderByAppointmentTimeAscIdAsc(
+                patientId, cursorPageMapper.toScrollPosition(cursor, CursorPageMapper.BY_TIME_AND_ID), cursorPageMapper.toLimit(size)), appointmentMapper::toDto);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentResponse> scrollAppointmentsByDoctor(Long doctorId, String cursor, int size) {
+        doctorService.getDoctorById(doctorId);
+        return cursorPageMapper.toDto(appointmentRepository.findByDoctorIdOrderByAppointmentTimeAscIdAsc(
+                doctorId, cursorPageMapper.toScrollPosition(cursor, CursorPageMapper.BY_TIME_AND_ID), cursorPageMapper.toLimit(size)), appointmentMapper::toDto);
+    }
+
+    // Streams every appointment to the writer in keyset chunks ordered by id, the next chunk is only read once the
+    // previous one has been written. Each chunk is its own short read-only transaction, so a slow client never holds a
+    // connection; appointments changed while an export runs show up as they were when their chunk was read
+    public long exportAppointments(ExportFormat format, Writer writer) throws IOException {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Stream<AppointmentExportRow> rows = Stream.iterate(exportChunkAfter(readOnly, 0L),
+                        chunk -> !chunk.isEmpty(),
+                        chunk -> chunk.size() < EXPORT_CHUNK_SIZE ? List.of() : exportChunkAfter(readOnly, chunk.get(chunk.size() - 1).id()))
+                .flatMap(List::stream);
+        return appointmentExportWriter.write(rows, format, writer);
+    }
+
+    private List<AppointmentExportRow> exportChunkAfter(TransactionTemplate readOnly, Long afterId) {
+        return readOnly.execute(status -> appointmentRepository.findExportRowsAfter(afterId, Limit.of(EXPORT_CHUNK_SIZE)));
+    }
 
     @Transactional
-    public AppointmentResponse updateAppointment(Long id, AppointmentRequest request) {
+    public AppointmentResponse updateAppointment(Long id, AppointmentRequest request, Long expectedVersion) {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with ID: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(appointment.getVersion())) {
+            throw new PreconditionFailedException("Appointment " + id + " has been changed since it was read, reload it and try again.");
+        }
 
-        Patient patient = patientRepository.findById(request.getPatientId())
-                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with ID: " + request.getPatientId()));
-        Doctor doctor = doctorRepository.findById(request.getDoctorId())
-                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with ID: " + request.getDoctorId()));
+        PatientResponse patient = patientService.getPatientById(request.getPatientId());
+        DoctorResponse doctor = doctorService.getDoctorById(request.getDoctorId());
+
+        int durationMinutes = appointmentMapper.durationOf(request, appointment);
+        LocalDateTime start = request.getAppointmentTime();
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+        lockSlotUntilCompletion(doctor.getId(), start, end);
 
         // Basic availability check for the new time/doctor
         // Exclude the current appointment from the check to allow updating its own details
-        if (isDoctorBookedExcludingCurrent(doctor.getId(), request.getAppointmentTime(), id)) {
+        if (isDoctorBooked(doctor.getId(), start, end, id)) {
             throw new IllegalArgumentException("Doctor is already booked at this time. Please choose another slot.");
         }
 
-        appointmentMapper.updateAppointmentFromDto(request, appointment, patient, doctor);
-        Appointment updatedAppointment = appointmentRepository.save(appointment);
-        return appointmentMapper.toDto(updatedAppointment);
+        AppointmentSnapshot previous = appointmentMapper.toSnapshot(appointment);
+        appointmentMapper.updateAppointmentFromDto(request, appointment,
+                patientRepository.getReferenceById(patient.getId()), doctorRepository.getReferenceById(doctor.getId()));
+        Appointment updatedAppointment = appointmentRepository.saveAndFlush(appointment); // Flushed for the new version (and the version check)
+        publishAfterCommit(changeOf(previous, request, durationMinutes, doctor.getId()), updatedAppointment, previous);
+        return appointmentMapper.toDto(updatedAppointment, patient, doctor);
     }
 
+    // Loads the row (deleteById would too) so subscribers learn whose schedule lost the appointment
     @Transactional
     public void deleteAppointment(Long id) {
-        if (!appointmentRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Appointment not found with ID: " + id);
+        Appointment appointment = appointmentRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with ID: " + id));
+        AppointmentSnapshot previous = appointmentMapper.toSnapshot(appointment);
+        appointmentRepository.delete(appointment);
+        TransactionCallbacks.afterCommit(() -> {
+            doctorScheduleIndex.remove(id);
+            appointmentEventLog.append(AppointmentEventType.DELETED, id, null, previous);
+        });
+    }
+
+    // Opens a server-sent event stream of committed changes, of one doctor's appointments when doctorId is given
+    public SseEmitter streamAppointments(Long doctorId, Long lastEventId) {
+        if (doctorId != null) {
+            doctorService.getDoctorById(doctorId); // Throws when the doctor does not exist, usually served from cache
         }
-        appointmentRepository.deleteById(id);
+        return appointmentStreamHub.open(doctorId, lastEventId);
+    }
+
+    // One projection query per dictionary, whatever the page size
+    private AppointmentSummaryPage toSummaryPage(Page<AppointmentSummaryResponse> page) {
+        Set<Long> patientIds = page.stream().map(AppointmentSummaryResponse::getPatientId).collect(Collectors.toSet());
+        Set<Long> doctorIds = page.stream().map(AppointmentSummaryResponse::getDoctorId).collect(Collectors.toSet());
+        return appointmentMapper.toSummaryPage(page,
+                patientIds.isEmpty() ? List.of() : patientRepository.findSummariesByIdIn(patientIds),
+                doctorIds.isEmpty() ? List.of() : doctorRepository.findSummariesByIdIn(doctorIds));
     }
 
     // --- Helper for Availability Check ---
-    private boolean isDoctorBooked(Long doctorId, LocalDateTime desiredTime) {
-        // Assume appointments are 30 minutes long for simplicity in this check
-        LocalDateTime startTime = desiredTime.minusMinutes(29); // Start check from 29 mins before
-        LocalDateTime endTime = desiredTime.plusMinutes(29);  // End check 29 mins after
-        List<Appointment> conflictingAppointments = appointmentRepository
-                .findByDoctorIdAndAppointmentTimeBetweenAndStatusNot(
-                        doctorId,
-                        startTime,
-                        endTime,
-                        AppointmentStatus.CANCELLED // Exclude cancelled appointments
-                );
-        return !conflictingAppointments.isEmpty();
-    }
-
-    private boolean isDoctorBookedExcludingCurrent(Long doctorId, LocalDateTime desiredTime, Long currentAppointmentId) {
-        LocalDateTime startTime = desiredTime.minusMinutes(29);
-        LocalDateTime endTime = desiredTime.plusMinutes(29);
-        List<Appointment> conflictingAppointments = appointmentRepository
-                .findByDoctorIdAndAppointmentTimeBetweenAndStatusNot(
-                        doctorId,
-                        startTime,
-                        endTime,
-                        AppointmentStatus.CANCELLED
-                );
-        return conflictingAppointments.stream()
-                .anyMatch(app -> !app.getId().equals(currentAppointmentId)); // True if any *other* appointment conflicts
+    // The in-memory schedule answers most checks on its own; the database is only asked to confirm a free slot,
+    // with one exists probe on the (doctor_id, appointment_time) index. excludedId lets an update ignore its own row.
+    private boolean isDoctorBooked(Long doctorId, LocalDateTime start, LocalDateTime end, Long excludedId) {
+        if (doctorScheduleIndex.isBookedExcluding(doctorId, start, end, excludedId)) {
+            applicationMetrics.bookingConflict("index");
+            return true;
+        }
+        boolean booked = appointmentRepository.existsOverlapping(
+                doctorId,
+                start.minusMinutes(Appointment.MAX_DURATION_MINUTES),
+                start,
+                end,
+                AppointmentStatus.CANCELLED, // Exclude cancelled appointments
+                excludedId
+        );
+        if (booked) {
+            applicationMetrics.bookingConflict("database");
+        }
+        return booked;
+    }
+
+    // --- Helpers for bulk scheduling ---
+    private String validate(AppointmentRequest request) {
+        if (request == null) {
+            return "Appointment is required";
+        }
+        Set<ConstraintViolation<AppointmentRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+
+    // Start -> end of the doctor's bookings that could overlap anything scheduled between first and last
+    private NavigableMap<LocalDateTime, LocalDateTime> findBookings(Long doctorId, LocalDateTime first, LocalDateTime last) {
+        return appointmentRepository.findBookedSlotsOfDoctorBetween(doctorId,
+                        first.minusMinutes(Appointment.MAX_DURATION_MINUTES).plusNanos(1), last, AppointmentStatus.CANCELLED)
+                .stream().collect(Collectors.toMap(BookedSlot::getAppointmentTime, BookedSlot::getEndTime,
+                        BinaryOperator.maxBy(Comparator.naturalOrder()), TreeMap::new));
+    }
+
+    // Same overlap rule as isDoctorBooked: a booking starting before end and ending after start
+    private boolean clashes(NavigableMap<LocalDateTime, LocalDateTime> booked, LocalDateTime start, LocalDateTime end) {
+        return booked.subMap(start.minusMinutes(Appointment.MAX_DURATION_MINUTES), false, end, false).values().stream()
+                .anyMatch(bookedEnd -> bookedEnd.isAfter(start));
+    }
+
+    // --- Booking locks ---
+    private void lockSlotUntilCompletion(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Booking locks require an active transaction");
+        }
+        BookingLockManager.Hold hold = bookingLockManager.lock(doctorId, start, end);
+        // Released after commit or rollback, once the new row is visible to others and the index has been updated
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                hold.close();
+            }
+        });
+    }
+
+    // --- Keeping the in-memory schedule and the read model in sync ---
+    // The snapshot is taken now, the entity may change again before the transaction commits
+    private void publishAfterCommit(AppointmentEventType type, Appointment appointment, AppointmentSnapshot previous) {
+        AppointmentSnapshot snapshot = appointmentMapper.toSnapshot(appointment);
+        TransactionCallbacks.afterCommit(() -> {
+            doctorScheduleIndex.put(snapshot.id(), snapshot.doctorId(), snapshot.appointmentTime(), snapshot.endTime(),
+                    snapshot.status());
+            appointmentEventLog.append(type, snapshot.id(), snapshot, previous);
+        });
+    }
+
+    // What an update means for the dashboards, given the appointment before the request is applied
+    private AppointmentEventType changeOf(AppointmentSnapshot current, AppointmentRequest request, int durationMinutes, Long doctorId) {
+        AppointmentStatus status = request.getStatus();
+        if (status != current.status() && (status == AppointmentStatus.CANCELLED || status == AppointmentStatus.COMPLETED)) {
+            return status == AppointmentStatus.CANCELLED ? AppointmentEventType.CANCELLED : AppointmentEventType.COMPLETED;
+        }
+        boolean moved = !request.getAppointmentTime().equals(current.appointmentTime())
+                || !Objects.equals(durationMinutes, current.durationMinutes())
+                || !Objects.equals(doctorId, current.doctorId());
+        return moved || status == AppointmentStatus.RESCHEDULED && status != current.status()
+                ? AppointmentEventType.RESCHEDULED : AppointmentEventType.UPDATED;
     }
 }
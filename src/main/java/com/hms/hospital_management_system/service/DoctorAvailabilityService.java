@@ -0,0 +1,154 @@
+package com.hms.hospital_management_system.service;
+
+
+import com.hms.hospital_management_system.dto.DoctorResponse;
+import com.hms.hospital_management_system.dto.DoctorSlotResponse;
+import com.hms.hospital_management_system.dto.TimeSlotResponse;
+import com.hms.hospital_management_system.dto.WorkingHoursRequest;
+import com.hms.hospital_management_system.dto.WorkingHoursResponse;
+import com.hms.hospital_management_system.entity.Appointment;
+import com.hms.hospital_management_system.entity.Doctor;
+import com.hms.hospital_management_system.entity.WorkingHours;
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.mapper.WorkingHoursMapper;
+import com.hms.hospital_management_system.repository.AppointmentRepository;
+import com.hms.hospital_management_system.repository.DoctorRepository;
+import com.hms.hospital_management_system.repository.WorkingHoursRepository;
+import com.hms.hospital_management_system.service.booking.AvailabilityCalendar;
+import com.hms.hospital_management_system.service.booking.TimeSlot;
+import com.hms.hospital_management_system.service.search.DoctorSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+@Service
+@RequiredArgsConstructor
+public class DoctorAvailabilityService {
+
+    private static final long MAX_RANGE_DAYS = 31;
+    private static final long FIRST_AVAILABLE_HORIZON_DAYS = 14;
+    private static final int MAX_FIRST_AVAILABLE_RESULTS = 20;
+
+    private final DoctorService doctorService;
+    private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final WorkingHoursRepository workingHoursRepository;
+    private final DoctorSearchIndex doctorSearchIndex;
+    private final WorkingHoursMapper workingHoursMapper;
+    private final AvailabilityCalendar availabilityCalendar;
+
+    @Transactional(readOnly = true)
+    public List<WorkingHoursResponse> getWorkingHours(Long doctorId) {
+        doctorService.getDoctorById(doctorId); // Throws when the doctor does not exist, usually served from cache
+        return workingHoursRepository.findByDoctorIdOrderByDayOfWeekAscStartTimeAsc(doctorId).stream()
+                .map(workingHoursMapper::toDto)
+                .toList();
+    }
+
+    @Transactional
+    public List<WorkingHoursResponse> replaceWorkingHours(Long doctorId, List<WorkingHoursRequest> requests) {
+        doctorService.getDoctorById(doctorId);
+        List<WorkingHoursRequest> sorted = new ArrayList<>(requests);
+        sorted.sort(Comparator.comparing(WorkingHoursRequest::getDayOfWeek).thenComparing(WorkingHoursRequest::getStartTime));
+        for (int i = 0; i < sorted.size(); i++) {
+            WorkingHoursRequest hours = sorted.get(i);
+            if (!hours.getStartTime().isBefore(hours.getEndTime())) {
+                throw new IllegalArgumentException("Working hours on " + hours.getDayOfWeek() + " must start before they end.");
+            }
+            if (i > 0 && sorted.get(i - 1).getDayOfWeek() == hours.getDayOfWeek()
+                    && hours.getStartTime().isBefore(sorted.get(i - 1).getEndTime())) {
+                throw new IllegalArgumentException("Working hours on " + hours.getDayOfWeek() + " overlap.");
+            }
+        }
+
+        workingHoursRepository.deleteByDoctorId(doctorId);
+        Doctor doctor = doctorRepository.getReferenceById(doctorId);
+        List<WorkingHours> saved = workingHoursRepository.saveAll(sorted.stream()
+                .map(hours -> workingHoursMapper.toEntity(hours, doctor))
+                .toList());
+        TransactionCallbacks.afterCommit(() -> availabilityCalendar.evict(doctorId));
+        return saved.stream().map(workingHoursMapper::toDto).toList();
+    }
+
+    // Open slots of the given length of a doctor between from and to, never in the past
+    public List<TimeSlotResponse> findFreeSlots(Long doctorId, LocalDateTime from, LocalDateTime to, int durationMinutes) {
+        doctorService.getDoctorById(doctorId);
+        checkDuration(durationMinutes);
+        LocalDateTime start = notInThePast(from);
+        if (Duration.between(start, to).toDays() >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Slots can be listed for at most " + MAX_RANGE_DAYS + " days at once.");
+        }
+        return availabilityCalendar.freeSlots(doctorId, start, to, durationMinutes).stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    // The earliest open slot of every doctor of the specialization within the next two weeks, soonest first. The
+    // doctors come from the in-memory search index, not from a scan of the doctor table. The calendar can lag behind
+    // bookings made on other instances, so each slot returned is confirmed with one exists probe; a taken one is
+    // replaced by the doctor's next open slot after it
+    @Transactional(readOnly = true)
+    public List<DoctorSlotResponse> findFirstAvailable(String specialization, LocalDateTime from, int durationMinutes, int limit) {
+        if (specialization == null || specialization.isBlank()) {
+            throw new IllegalArgumentException("Specialization is required.");
+        }
+        checkDuration(durationMinutes);
+        LocalDateTime start = notInThePast(from);
+        LocalDateTime horizon = start.plusDays(FIRST_AVAILABLE_HORIZON_DAYS);
+        PriorityQueue<DoctorSlotResponse> candidates = new PriorityQueue<>(Comparator.comparing(DoctorSlotResponse::getStart)
+                .thenComparing(slot -> slot.getDoctor().getId()));
+        for (DoctorResponse doctor : doctorSearchIndex.findBySpecialization(specialization)) {
+            firstFreeSlot(doctor, start, horizon, durationMinutes).ifPresent(candidates::add);
+        }
+        int maxResults = Math.max(1, Math.min(limit, MAX_FIRST_AVAILABLE_RESULTS));
+        List<DoctorSlotResponse> firstSlots = new ArrayList<>();
+        while (firstSlots.size() < maxResults && !candidates.isEmpty()) {
+            DoctorSlotResponse candidate = candidates.poll();
+            if (isBooked(candidate)) {
+                firstFreeSlot(candidate.getDoctor(), candidate.getEnd(), horizon, durationMinutes).ifPresent(candidates::add);
+            } else {
+                firstSlots.add(candidate);
+            }
+        }
+        return firstSlots;
+    }
+
+    private Optional<DoctorSlotResponse> firstFreeSlot(DoctorResponse doctor, LocalDateTime from, LocalDateTime to, int durationMinutes) {
+        return availabilityCalendar.firstFreeSlot(doctor.getId(), from, to, durationMinutes)
+                .map(slot -> DoctorSlotResponse.builder()
+                        .doctor(doctor)
+                        .start(slot.start())
+                        .end(slot.end())
+                        .build());
+    }
+
+    // Same probe as the booking check in AppointmentService
+    private boolean isBooked(DoctorSlotResponse slot) {
+        return appointmentRepository.existsOverlapping(slot.getDoctor().getId(),
+                slot.getStart().minusMinutes(Appointment.MAX_DURATION_MINUTES), slot.getStart(), slot.getEnd(),
+                AppointmentStatus.CANCELLED, null);
+    }
+
+    private void checkDuration(int durationMinutes) {
+        if (durationMinutes < 5 || durationMinutes > Appointment.MAX_DURATION_MINUTES) {
+            throw new IllegalArgumentException("Slot duration must be between 5 and " + Appointment.MAX_DURATION_MINUTES + " minutes.");
+        }
+    }
+
+    private LocalDateTime notInThePast(LocalDateTime from) {
+        LocalDateTime now = LocalDateTime.now();
+        return from == null || from.isBefore(now) ? now : from;
+    }
+
+    private TimeSlotResponse toDto(TimeSlot slot) {
+        return TimeSlotResponse.builder().start(slot.start()).end(slot.end()).build();
+    }
+}
@@ -1,13 +1,22 @@
 package com.hms.hospital_management_system.service;
 
 
+import com.hms.hospital_management_system.config.CacheConfig;
+import com.hms.hospital_management_system.dto.CursorPage;
 import com.hms.hospital_management_system.dto.DoctorRequest;
 import com.hms.hospital_management_system.dto.DoctorResponse;
 import com.hms.hospital_management_system.entity.Doctor;
+import com.hms.hospital_management_system.exception.PreconditionFailedException;
 import com.hms.hospital_management_system.exception.ResourceNotFoundException;
+import com.hms.hospital_management_system.mapper.CursorPageMapper;
 import com.hms.hospital_management_system.mapper.DoctorMapper;
 import com.hms.hospital_management_system.repository.DoctorRepository;
+import com.hms.hospital_management_system.repository.WorkingHoursRepository;
+import com.hms.hospital_management_system.service.booking.AvailabilityCalendar;
+import com.hms.hospital_management_system.service.search.DoctorSearchIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -19,6 +28,11 @@ public class DoctorService {
 
     private final DoctorRepository doctorRepository;
     private final DoctorMapper doctorMapper;
+    private final CursorPageMapper cursorPageMapper;
+    private final DoctorSearchIndex doctorSearchIndex;
+    private final WorkingHoursRepository workingHoursRepository;
+    private final AvailabilityCalendar availabilityCalendar;
+    private final CacheManager cacheManager;
 
     @Transactional
     public DoctorResponse createDoctor(DoctorRequest request) {
@@ -27,9 +41,19 @@ public class DoctorService {
         }
         Doctor doctor = doctorMapper.toEntity(request);
         Doctor savedDoctor = doctorRepository.save(doctor);
-        return doctorMapper.toDto(savedDoctor);
+        DoctorResponse response = doctorMapper.toDto(savedDoctor);
+        TransactionCallbacks.afterCommit(() -> doctorSearchIndex.put(response));
+        return response;
     }
 
+    // Version column only, for conditional GETs
+    @Transactional(readOnly = true)
+    public long getDoctorVersion(Long id) {
+        return doctorRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with ID: " + id));
+    }
+
+    @Cacheable(cacheNames = CacheConfig.DOCTORS, key = "#id")
     @Transactional(readOnly = true)
     public DoctorResponse getDoctorById(Long id) {
         Doctor doctor = doctorRepository.findById(id)
@@ -44,15 +68,23 @@ public class DoctorService {
     }
 
     @Transactional(readOnly = true)
+    public CursorPage<DoctorResponse> scrollDoctors(String cursor, int size) {
+        return cursorPageMapper.toDto(doctorRepository.findAllByOrderByIdAsc(
+                cursorPageMapper.toScrollPosition(cursor, CursorPageMapper.BY_ID), cursorPageMapper.toLimit(size)), doctorMapper::toDto);
+    }
+
+    // Served by the in-memory index, ranked by relevance and tolerant to small typos
     public Page<DoctorResponse> searchDoctors(String query, Pageable pageable) {
-        return doctorRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCaseOrSpecializationContainingIgnoreCase(query, query, query, pageable)
-                .map(doctorMapper::toDto);
+        return doctorSearchIndex.search(query, pageable);
     }
 
     @Transactional
-    public DoctorResponse updateDoctor(Long id, DoctorRequest request) {
+    public DoctorResponse updateDoctor(Long id, DoctorRequest request, Long expectedVersion) {
         Doctor doctor = doctorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with ID: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(doctor.getVersion())) {
+            throw new PreconditionFailedException("Doctor " + id + " has been changed since it was read, reload it and try again.");
+        }
 
         // Check if email is being changed to an existing one (and not the current doctor's email)
         if (doctorRepository.findByEmail(request.getEmail()).isPresent() &&
@@ -61,8 +93,13 @@ public class DoctorService {
         }
 
         doctorMapper.updateDoctorFromDto(request, doctor);
-        Doctor updatedDoctor = doctorRepository.save(doctor);
-        return doctorMapper.toDto(updatedDoctor);
+        Doctor updatedDoctor = doctorRepository.saveAndFlush(doctor); // Flushed for the new version (and the version check)
+        DoctorResponse response = doctorMapper.toDto(updatedDoctor);
+        TransactionCallbacks.afterCommit(() -> {
+            evictFromCache(id);
+            doctorSearchIndex.put(response);
+        });
+        return response;
     }
 
     @Transactional
@@ -70,6 +107,17 @@ public class DoctorService {
         if (!doctorRepository.existsById(id)) {
             throw new ResourceNotFoundException("Doctor not found with ID: " + id);
         }
+        workingHoursRepository.deleteByDoctorId(id);
         doctorRepository.deleteById(id);
+        TransactionCallbacks.afterCommit(() -> {
+            evictFromCache(id);
+            doctorSearchIndex.remove(id);
+            availabilityCalendar.evict(id);
+        });
+    }
+
+    // Only once the change is committed: evicted earlier, a concurrent lookup could cache the old row again
+    private void evictFromCache(Long id) {
+        cacheManager.getCache(CacheConfig.DOCTORS).evict(id);
     }
 }
@@ -1,24 +1,42 @@
 package com.hms.hospital_management_system.service;
 
 
+import com.hms.hospital_management_system.config.CacheConfig;
+import com.hms.hospital_management_system.dto.CursorPage;
 import com.hms.hospital_management_system.dto.PatientRequest;
 import com.hms.hospital_management_system.dto.PatientResponse;
+import com.hms.hospital_management_system.dto.PatientSummaryResponse;
 import com.hms.hospital_management_system.entity.Patient;
+import com.hms.hospital_management_system.exception.PreconditionFailedException;
 import com.hms.hospital_management_system.exception.ResourceNotFoundException;
+import com.hms.hospital_management_system.mapper.CursorPageMapper;
 import com.hms.hospital_management_system.mapper.PatientMapper;
 import com.hms.hospital_management_system.repository.PatientRepository;
+import com.hms.hospital_management_system.service.search.PatientSearchIndex;
+import com.hms.hospital_management_system.service.search.PatientSearchQuery;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class PatientService {
 
     private final PatientRepository patientRepository;
     private final PatientMapper patientMapper;
+    private final CursorPageMapper cursorPageMapper;
+    private final PatientSearchIndex patientSearchIndex;
+    private final CacheManager cacheManager;
 
     @Transactional
     public PatientResponse createPatient(PatientRequest request) {
@@ -27,9 +45,12 @@ public class PatientService {
         }
         Patient patient = patientMapper.toEntity(request);
         Patient savedPatient = patientRepository.save(patient);
-        return patientMapper.toDto(savedPatient);
+        PatientResponse response = patientMapper.toDto(savedPatient);
+        TransactionCallbacks.afterCommit(() -> patientSearchIndex.add(response));
+        return response;
     }
 
+    @Cacheable(cacheNames = CacheConfig.PATIENTS, key = "#id")
     @Transactional(readOnly = true)
     public PatientResponse getPatientById(Long id) {
         Patient patient = patientRepository.findById(id)
@@ -37,22 +58,52 @@ public class PatientService {
         return patientMapper.toDto(patient);
     }
 
+    // Version column only, for conditional GETs
+    @Transactional(readOnly = true)
+    public long getPatientVersion(Long id) {
+        return patientRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with ID: " + id));
+    }
+
     @Transactional(readOnly = true)
     public Page<PatientResponse> getAllPatients(Pageable pageable) {
         return patientRepository.findAll(pageable)
                 .map(patientMapper::toDto);
     }
 
+    // Summary view, selects only the identifying and contact columns
     @Transactional(readOnly = true)
-    public Page<PatientResponse> searchPatients(String query, Pageable pageable) {
-        return patientRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(query, query, pageable)
-                .map(patientMapper::toDto);
+    public Page<PatientSummaryResponse> getPatientSummaries(Pageable pageable) {
+        return patientRepository.findAllSummaries(pageable)
+                .map(patientMapper::toSummary);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<PatientResponse> scrollPatients(String cursor, int size) {
+        return cursorPageMapper.toDto(patientRepository.findAllByOrderByIdAsc(
+                cursorPageMapper.toScrollPosition(cursor, CursorPageMapper.BY_ID), cursorPageMapper.toLimit(size)), patientMapper::toDto);
+    }
+
+    // Ranked ids come from the in-memory index, only the patients of the requested page are loaded
+    @Transactional(readOnly = true)
+    public Page<PatientResponse> searchPatients(PatientSearchQuery query, Pageable pageable) {
+        Page<Long> ids = patientSearchIndex.search(query, pageable);
+        Map<Long, PatientResponse> patients = patientRepository.findAllById(ids.getContent()).stream()
+                .collect(Collectors.toMap(Patient::getId, patientMapper::toDto));
+        List<PatientResponse> content = ids.getContent().stream()
+                .map(patients::get)
+                .filter(Objects::nonNull) // Deleted since the search
+                .toList();
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
     }
 
     @Transactional
-    public PatientResponse updatePatient(Long id, PatientRequest request) {
+    public PatientResponse updatePatient(Long id, PatientRequest request, Long expectedVersion) {
         Patient patient = patientRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient not found with ID: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(patient.getVersion())) {
+            throw new PreconditionFailedException("Patient " + id + " has been changed since it was read, reload it and try again.");
+        }
 
         // Check if email is being changed to an existing one (and not the current patient's email)
         if (patientRepository.findByEmail(request.getEmail()).isPresent() &&
@@ -60,16 +111,31 @@ public class PatientService {
             throw new IllegalArgumentException("Another patient with this email already exists.");
         }
 
+        PatientResponse previous = patientMapper.toDto(patient);
         patientMapper.updatePatientFromDto(request, patient);
-        Patient updatedPatient = patientRepository.save(patient);
-        return patientMapper.toDto(updatedPatient);
+        Patient updatedPatient = patientRepository.saveAndFlush(patient); // Flushed for the new version (and the version check)
+        PatientResponse response = patientMapper.toDto(updatedPatient);
+        TransactionCallbacks.afterCommit(() -> {
+            evictFromCache(id);
+            patientSearchIndex.replace(previous, response);
+        });
+        return response;
     }
 
     @Transactional
     public void deletePatient(Long id) {
-        if (!patientRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Patient not found with ID: " + id);
-        }
-        patientRepository.deleteById(id);
+        Patient patient = patientRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Patient not found with ID: " + id));
+        PatientResponse previous = patientMapper.toDto(patient); // The search index needs the keys to remove
+        patientRepository.delete(patient);
+        TransactionCallbacks.afterCommit(() -> {
+            evictFromCache(id);
+            patientSearchIndex.remove(previous);
+        });
+    }
+
+    // Only once the change is committed: evicted earlier, a concurrent lookup could cache the old row again
+    private void evictFromCache(Long id) {
+        cacheManager.getCache(CacheConfig.PATIENTS).evict(id);
     }
 }
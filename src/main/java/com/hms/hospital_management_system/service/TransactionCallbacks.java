@@ -0,0 +1,27 @@
+package com.hms.hospital_management_system.service;
+
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Defers updates of the in-memory indexes and caches until the surrounding transaction has committed
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    // Rolled back changes must never reach an index, so the action runs only once the transaction commits
+    // (immediately when there is no transaction)
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
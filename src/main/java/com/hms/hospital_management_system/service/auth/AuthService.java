@@ -3,14 +3,23 @@ package com.hms.hospital_management_system.service.auth;
 
 import com.hms.hospital_management_system.dto.AuthRequest;
 import com.hms.hospital_management_system.dto.AuthResponse;
+import com.hms.hospital_management_system.dto.RefreshTokenRequest;
 import com.hms.hospital_management_system.dto.RegisterRequest;
+import com.hms.hospital_management_system.dto.RevokeTokensRequest;
 import com.hms.hospital_management_system.entity.User;
+import com.hms.hospital_management_system.exception.ResourceNotFoundException;
+import com.hms.hospital_management_system.metrics.ApplicationMetrics;
 import com.hms.hospital_management_system.repository.UserRepository;
 import com.hms.hospital_management_system.security.JwtService;
+import com.hms.hospital_management_system.security.TokenRevocationRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -22,6 +31,9 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final RefreshTokenService refreshTokenService;
+    private final ApplicationMetrics applicationMetrics;
 
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.findByEmail(request.getEmail()).isPresent()) {
@@ -34,20 +46,67 @@ public class AuthService {
                 .role(request.getRole())
                 .build();
         userRepository.save(user);
-        var jwtToken = jwtService.generateToken(user);
-        return AuthResponse.builder().token(jwtToken).build();
+        return issueTokens(user, refreshTokenService.issue(user));
     }
 
     public AuthResponse authenticate(AuthRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
-                )
-        );
-        var user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found")); // Should not happen after authenticate
-        var jwtToken = jwtService.generateToken(user);
-        return AuthResponse.builder().token(jwtToken).build();
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            request.getEmail(),
+                            request.getPassword()
+                    )
+            );
+        } catch (AuthenticationException ex) {
+            applicationMetrics.authFailure("bad_credentials"); // Unknown emails are reported as bad credentials as well
+            throw ex;
+        }
+        // The principal is the user the provider just loaded (and rehashed if needed), no second lookup
+        var user = (User) authentication.getPrincipal();
+        return issueTokens(user, refreshTokenService.issue(user));
+    }
+
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation;
+        try {
+            rotation = refreshTokenService.rotate(request.getRefreshToken());
+        } catch (AuthenticationException ex) {
+            applicationMetrics.authFailure("invalid_refresh_token");
+            throw ex;
+        }
+        return issueTokens(rotation.user(), rotation.refreshToken());
+    }
+
+    // Ends the session of the refresh token and, when given, revokes the access token presented with the request
+    public void logout(RefreshTokenRequest request, String accessToken) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        if (accessToken == null) {
+            return;
+        }
+        try {
+            Claims claims = jwtService.extractAllClaims(accessToken);
+            if (claims.getId() != null) {
+                tokenRevocationRegistry.revokeToken(claims.getId(), claims.getExpiration());
+            }
+        } catch (JwtException | IllegalArgumentException ex) {
+            // Already expired or not ours, nothing to revoke
+        }
+    }
+
+    public void revokeTokens(RevokeTokensRequest request) {
+        if (userRepository.findByEmail(request.getEmail()).isEmpty()) {
+            throw new ResourceNotFoundException("User not found with email: " + request.getEmail());
+        }
+        tokenRevocationRegistry.revokeAllTokens(request.getEmail());
+        refreshTokenService.revokeAll(request.getEmail());
+    }
+
+    private AuthResponse issueTokens(User user, String refreshToken) {
+        return AuthResponse.builder()
+                .token(jwtService.generateToken(user))
+                .refreshToken(refreshToken)
+                .expiresIn(jwtService.getExpiration() / 1000)
+                .build();
     }
 }
@@ -0,0 +1,121 @@
+package com.hms.hospital_management_system.service.booking;
+
+
+import com.hms.hospital_management_system.entity.WorkingHours;
+import com.hms.hospital_management_system.repository.WorkingHoursRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Free time of a doctor as one bitset per day with a bit per 5 minute cell: working hours minus bookings.
+ * <p>
+ * The weekly working-hours masks are built once per doctor and kept until the hours change (see {@link #evict}).
+ * Bookings come from the {@link DoctorScheduleIndex}, so computing a day costs one range lookup and a few bitset
+ * operations and never touches the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class AvailabilityCalendar {
+
+    public static final int CELL_MINUTES = 5;
+    private static final int CELLS_PER_DAY = 24 * 60 / CELL_MINUTES;
+
+    private final WorkingHoursRepository workingHoursRepository;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+
+    private final Map<Long, Map<DayOfWeek, BitSet>> weeklyMasks = new ConcurrentHashMap<>();
+
+    // Back-to-back slots of the given length inside the free stretches of [from, to)
+    public List<TimeSlot> freeSlots(Long doctorId, LocalDateTime from, LocalDateTime to, long slotMinutes) {
+        return collectSlots(doctorId, from, to, slotMinutes, Integer.MAX_VALUE);
+    }
+
+    public Optional<TimeSlot> firstFreeSlot(Long doctorId, LocalDateTime from, LocalDateTime to, long slotMinutes) {
+        return collectSlots(doctorId, from, to, slotMinutes, 1).stream().findFirst();
+    }
+
+    // Must be called once a doctor's working hours have changed
+    public void evict(Long doctorId) {
+        weeklyMasks.remove(doctorId);
+    }
+
+    private List<TimeSlot> collectSlots(Long doctorId, LocalDateTime from, LocalDateTime to, long slotMinutes, int maxSlots) {
+        List<TimeSlot> slots = new ArrayList<>();
+        Map<DayOfWeek, BitSet> masks = weeklyMask(doctorId);
+        if (masks.isEmpty() || !from.isBefore(to)) {
+            return slots;
+        }
+        int slotCells = (int) Math.ceil((double) slotMinutes / CELL_MINUTES);
+        for (LocalDate day = from.toLocalDate(); day.atStartOfDay().isBefore(to) && slots.size() < maxSlots; day = day.plusDays(1)) {
+            BitSet mask = masks.get(day.getDayOfWeek());
+            if (mask == null) {
+                continue;
+            }
+            LocalDateTime dayStart = day.atStartOfDay();
+            BitSet free = freeCells(doctorId, dayStart, mask);
+            int firstCell = Math.max(0, cellAtOrAfter(dayStart, from));
+            int lastCell = Math.min(CELLS_PER_DAY, cellAtOrBefore(dayStart, to));
+            for (int cell = free.nextSetBit(firstCell); cell >= 0 && cell < lastCell && slots.size() < maxSlots; ) {
+                int runEnd = Math.min(free.nextClearBit(cell), lastCell);
+                for (int start = cell; start + slotCells <= runEnd && slots.size() < maxSlots; start += slotCells) {
+                    LocalDateTime slotStart = dayStart.plusMinutes((long) start * CELL_MINUTES);
+                    slots.add(new TimeSlot(slotStart, slotStart.plusMinutes(slotMinutes)));
+                }
+                cell = free.nextSetBit(runEnd);
+            }
+        }
+        return slots;
+    }
+
+    private BitSet freeCells(Long doctorId, LocalDateTime dayStart, BitSet mask) {
+        BitSet free = (BitSet) mask.clone();
+        for (DoctorScheduleIndex.Booking booking : doctorScheduleIndex.bookingsOverlapping(doctorId, dayStart, dayStart.plusDays(1))) {
+            // A cell partly covered by a booking is not free
+            int fromCell = Math.max(0, cellAtOrBefore(dayStart, booking.start()));
+            int toCell = Math.min(CELLS_PER_DAY, cellAtOrAfter(dayStart, booking.end()));
+            if (fromCell < toCell) {
+                free.clear(fromCell, toCell);
+            }
+        }
+        return free;
+    }
+
+    private Map<DayOfWeek, BitSet> weeklyMask(Long doctorId) {
+        return weeklyMasks.computeIfAbsent(doctorId, id -> {
+            Map<DayOfWeek, BitSet> masks = new EnumMap<>(DayOfWeek.class);
+            for (WorkingHours hours : workingHoursRepository.findByDoctorIdOrderByDayOfWeekAscStartTimeAsc(id)) {
+                // Only whole cells inside the working period are bookable
+                int fromCell = (hours.getStartTime().toSecondOfDay() + CELL_MINUTES * 60 - 1) / (CELL_MINUTES * 60);
+                int toCell = hours.getEndTime().toSecondOfDay() / (CELL_MINUTES * 60);
+                if (fromCell < toCell) {
+                    masks.computeIfAbsent(hours.getDayOfWeek(), day -> new BitSet(CELLS_PER_DAY)).set(fromCell, toCell);
+                }
+            }
+            return masks;
+        });
+    }
+
+    // Index of the first cell starting at or after the time (may lie outside the day)
+    private static int cellAtOrAfter(LocalDateTime dayStart, LocalDateTime time) {
+        long seconds = Duration.between(dayStart, time).getSeconds();
+        return (int) Math.max(-1, Math.min(CELLS_PER_DAY + 1, Math.ceilDiv(seconds, CELL_MINUTES * 60L)));
+    }
+
+    // Index of the cell containing the time, i.e. of the last cell starting at or before it (may lie outside the day)
+    private static int cellAtOrBefore(LocalDateTime dayStart, LocalDateTime time) {
+        long seconds = Duration.between(dayStart, time).getSeconds();
+        return (int) Math.max(-1, Math.min(CELLS_PER_DAY + 1, Math.floorDiv(seconds, CELL_MINUTES * 60L)));
+    }
+}
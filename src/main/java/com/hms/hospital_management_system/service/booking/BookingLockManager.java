@@ -0,0 +1,107 @@
+package com.hms.hospital_management_system.service.booking;
+
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes bookings that could clash with each other without serializing anything else.
+ * <p>
+ * A doctor's calendar is cut into one hour buckets and every bucket gets its own lock, created on demand
+ * and discarded once nobody holds or waits for it. A booking locks every bucket its time range touches,
+ * so two overlapping bookings always share at least one bucket, while bookings for different doctors
+ * (or far apart in time) never touch the same lock. Buckets are always locked in ascending order,
+ * which rules out deadlocks between bookings spanning several buckets.
+ */
+@Component
+public class BookingLockManager {
+
+    private static final long BUCKET_MINUTES = 60;
+
+    private final Map<SlotKey, SlotLock> locks = new ConcurrentHashMap<>();
+
+    // Locks every bucket of the doctor's calendar overlapping [start, end)
+    public Hold lock(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        List<SlotLock> acquired = new ArrayList<>();
+        try {
+            for (long bucket = bucketOf(start); bucket <= bucketOf(end.minusNanos(1)); bucket++) {
+                SlotLock slotLock = reference(new SlotKey(doctorId, bucket));
+                acquired.add(slotLock);
+                slotLock.lock.lock();
+            }
+        } catch (RuntimeException ex) {
+            new Hold(acquired).close();
+            throw ex;
+        }
+        return new Hold(acquired);
+    }
+
+    // Number of buckets currently locked or waited on, exposed for tests and diagnostics
+    int activeLocks() {
+        return locks.size();
+    }
+
+    private long bucketOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), BUCKET_MINUTES * 60);
+    }
+
+    private SlotLock reference(SlotKey key) {
+        return locks.compute(key, (k, existing) -> {
+            SlotLock slotLock = existing != null ? existing : new SlotLock(k);
+            slotLock.references++;
+            return slotLock;
+        });
+    }
+
+    private void release(SlotLock slotLock) {
+        if (slotLock.lock.isHeldByCurrentThread()) {
+            slotLock.lock.unlock();
+        }
+        locks.computeIfPresent(slotLock.key, (k, existing) -> --existing.references == 0 ? null : existing);
+    }
+
+    /**
+     * The buckets locked for one booking. Must be closed by the thread that acquired it,
+     * normally once the surrounding transaction has completed.
+     */
+    public final class Hold implements AutoCloseable {
+
+        private final List<SlotLock> slotLocks;
+        private boolean released;
+
+        private Hold(List<SlotLock> slotLocks) {
+            this.slotLocks = slotLocks;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            for (int i = slotLocks.size() - 1; i >= 0; i--) {
+                release(slotLocks.get(i));
+            }
+        }
+    }
+
+    private record SlotKey(Long doctorId, long bucket) {
+    }
+
+    private static final class SlotLock {
+        private final SlotKey key;
+        private final ReentrantLock lock = new ReentrantLock();
+        private int references; // guarded by the map's compute operations
+
+        private SlotLock(SlotKey key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.hms.hospital_management_system.service.booking;
+
+
+import com.hms.hospital_management_system.entity.Appointment;
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.repository.AppointmentRepository;
+import com.hms.hospital_management_system.repository.projection.BookedSlot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index of the non-cancelled bookings of every doctor, ordered by start time.
+ * Answers "does anything overlap this time range?" with a single O(log n) range lookup instead of loading
+ * {@code Appointment} entities from the database. Bookings are ordered by start only, so the lookup scans the
+ * bookings starting less than {@link Appointment#MAX_DURATION_MINUTES} before the range and checks their ends.
+ * <p>
+ * The index is warmed from the database at startup and must be kept in sync by the callers
+ * (see {@code AppointmentService}) once their transaction has committed. Those calls only cover this instance's
+ * writes, so the index is also reloaded every {@code appointments.schedule-index.refresh-interval-ms}: a booking
+ * cancelled or moved elsewhere blocks its old slot here for at most that long.
+ */
+@Component
+@RequiredArgsConstructor
+public class DoctorScheduleIndex implements SmartInitializingSingleton {
+
+    private final AppointmentRepository appointmentRepository;
+
+    // Replaced as a whole by every reload, so lock-free readers never see a half-built index
+    private volatile Map<Long, NavigableSet<Booking>> bookingsByDoctor = new ConcurrentHashMap<>();
+    private volatile Map<Long, Booking> bookingsById = new ConcurrentHashMap<>();
+    // While a reload reads the database: the latest put (or removal, as null) of every appointment, replayed over
+    // the rows read since they may predate it
+    private Map<Long, Optional<Booking>> changedWhileReloading;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    // Picks up changes committed by other instances
+    @Scheduled(fixedDelayString = "${appointments.schedule-index.refresh-interval-ms:60000}",
+            initialDelayString = "${appointments.schedule-index.refresh-interval-ms:60000}")
+    public void reload() {
+        synchronized (this) {
+            changedWhileReloading = new HashMap<>();
+        }
+        Map<Long, NavigableSet<Booking>> byDoctor = new ConcurrentHashMap<>();
+        Map<Long, Booking> byId = new ConcurrentHashMap<>();
+        try {
+            // New bookings can only be made in the present or future, so older rows never take part in a conflict check
+            LocalDateTime from = LocalDateTime.now().minusDays(1);
+            for (BookedSlot slot : appointmentRepository.findBookedSlotsFrom(from, AppointmentStatus.CANCELLED)) {
+                if (slot.getEndTime() == null) {
+                    // Overlap checks would miss the booking, in the index and in the database alike
+                    throw new IllegalStateException("Appointment " + slot.getId() + " has no end_time, run the end_time "
+                            + "upgrade statement from the README before starting the application.");
+                }
+                add(byDoctor, byId, new Booking(slot.getAppointmentTime(), slot.getEndTime(), slot.getId(), slot.getDoctorId()));
+            }
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                changedWhileReloading = null;
+            }
+            throw ex;
+        }
+        synchronized (this) {
+            changedWhileReloading.forEach((appointmentId, booking) -> {
+                delete(byDoctor, byId, appointmentId);
+                booking.ifPresent(changed -> add(byDoctor, byId, changed));
+            });
+            changedWhileReloading = null;
+            bookingsByDoctor = byDoctor;
+            bookingsById = byId;
+        }
+    }
+
+    // Whether any booking of the doctor overlaps [start, end)
+    public boolean isBooked(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        return isBookedExcluding(doctorId, start, end, null);
+    }
+
+    public boolean isBookedExcluding(Long doctorId, LocalDateTime start, LocalDateTime end, Long excludedAppointmentId) {
+        for (Booking booking : candidates(doctorId, start, end)) {
+            if (booking.end().isAfter(start) && !booking.appointmentId().equals(excludedAppointmentId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Bookings of the doctor overlapping [from, to), ordered by start time
+    List<Booking> bookingsOverlapping(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        List<Booking> overlapping = new ArrayList<>();
+        for (Booking booking : candidates(doctorId, from, to)) {
+            if (booking.end().isAfter(from)) {
+                overlapping.add(booking);
+            }
+        }
+        return overlapping;
+    }
+
+    // Bookings starting in (from - longest duration, to): a superset of those overlapping [from, to)
+    private NavigableSet<Booking> candidates(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        NavigableSet<Booking> bookings = bookingsByDoctor.get(doctorId);
+        if (bookings == null) {
+            return Collections.emptyNavigableSet();
+        }
+        return bookings.subSet(Booking.upperBound(from.minusMinutes(Appointment.MAX_DURATION_MINUTES)), false,
+                Booking.lowerBound(to), false);
+    }
+
+    // Registers the current state of an appointment, replacing whatever was indexed for it before
+    public synchronized void put(Long appointmentId, Long doctorId, LocalDateTime start, LocalDateTime end, AppointmentStatus status) {
+        remove(appointmentId);
+        if (status == AppointmentStatus.CANCELLED) {
+            return;
+        }
+        Booking booking = new Booking(start, end, appointmentId, doctorId);
+        add(bookingsByDoctor, bookingsById, booking);
+        if (changedWhileReloading != null) {
+            changedWhileReloading.put(appointmentId, Optional.of(booking));
+        }
+    }
+
+    public synchronized void remove(Long appointmentId) {
+        delete(bookingsByDoctor, bookingsById, appointmentId);
+        if (changedWhileReloading != null) {
+            changedWhileReloading.put(appointmentId, Optional.empty());
+        }
+    }
+
+    private static void add(Map<Long, NavigableSet<Booking>> byDoctor, Map<Long, Booking> byId, Booking booking) {
+        byDoctor.computeIfAbsent(booking.doctorId(), id -> new ConcurrentSkipListSet<>(Booking.ORDER)).add(booking);
+        byId.put(booking.appointmentId(), booking);
+    }
+
+    private static void delete(Map<Long, NavigableSet<Booking>> byDoctor, Map<Long, Booking> byId, Long appointmentId) {
+        Booking previous = byId.remove(appointmentId);
+        if (previous != null) {
+            NavigableSet<Booking> bookings = byDoctor.get(previous.doctorId());
+            if (bookings != null) {
+                bookings.remove(previous);
+            }
+        }
+    }
+
+    // Past bookings can no longer conflict with anything, drop them once a day to keep the index small
+    @Scheduled(cron = "0 0 3 * * *")
+    public synchronized void evictPastBookings() {
+        Booking cutoff = Booking.lowerBound(LocalDateTime.now().minusDays(1));
+        Map<Long, Booking> byId = bookingsById;
+        bookingsByDoctor.values().forEach(bookings -> {
+            for (Booking booking : bookings.headSet(cutoff, false)) {
+                bookings.remove(booking);
+                byId.remove(booking.appointmentId(), booking);
+            }
+        });
+    }
+
+    record Booking(LocalDateTime start, LocalDateTime end, Long appointmentId, Long doctorId) {
+
+        static final Comparator<Booking> ORDER = Comparator.comparing(Booking::start)
+                .thenComparing(Booking::appointmentId);
+
+        static Booking lowerBound(LocalDateTime start) {
+            return new Booking(start, start, Long.MIN_VALUE, null);
+        }
+
+        static Booking upperBound(LocalDateTime start) {
+            return new Booking(start, start, Long.MAX_VALUE, null);
+        }
+    }
+}
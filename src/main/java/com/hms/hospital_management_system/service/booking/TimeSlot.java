@@ -0,0 +1,7 @@
+package com.hms.hospital_management_system.service.booking;
+
+
+import java.time.LocalDateTime;
+
+public record TimeSlot(LocalDateTime start, LocalDateTime end) {
+}
@@ -0,0 +1,20 @@
+package com.hms.hospital_management_system.service.event;
+
+
+import com.hms.hospital_management_system.repository.projection.AppointmentSnapshot;
+
+import java.time.LocalDateTime;
+
+/**
+ * A committed change to an appointment. {@code appointment} is its state after the change, {@code null} once it
+ * has been deleted; {@code previous} its state before, {@code null} for a new appointment. Sequence numbers are
+ * assigned by {@link AppointmentEventLog} and increase without gaps.
+ */
+public record AppointmentEvent(
+        long sequence,
+        AppointmentEventType type,
+        Long appointmentId,
+        AppointmentSnapshot appointment,
+        AppointmentSnapshot previous,
+        LocalDateTime occurredAt) {
+}
@@ -0,0 +1,83 @@
+package com.hms.hospital_management_system.service.event;
+
+
+import com.hms.hospital_management_system.repository.projection.AppointmentSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process log of committed appointment changes. Events are numbered and handed to every subscriber in that order,
+ * one at a time, on the thread that appended them (after its transaction committed). The most recent events are kept
+ * so that subscribers joining late can catch up.
+ */
+@Slf4j
+@Component
+public class AppointmentEventLog {
+
+    private final int capacity;
+    private final Deque<AppointmentEvent> recent = new ArrayDeque<>();
+    private final List<Consumer<AppointmentEvent>> subscribers = new CopyOnWriteArrayList<>();
+    private long lastSequence;
+
+    public AppointmentEventLog(@Value("${appointments.event-log.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void subscribe(Consumer<AppointmentEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void unsubscribe(Consumer<AppointmentEvent> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    public synchronized AppointmentEvent append(AppointmentEventType type, Long appointmentId, AppointmentSnapshot appointment,
+                                                AppointmentSnapshot previous) {
+        AppointmentEvent event = new AppointmentEvent(++lastSequence, type, appointmentId, appointment, previous, LocalDateTime.now());
+        if (recent.size() == capacity) {
+            recent.removeFirst();
+        }
+        recent.addLast(event);
+        for (Consumer<AppointmentEvent> subscriber : subscribers) {
+            try {
+                subscriber.accept(event);
+            } catch (RuntimeException ex) {
+                // The change is committed already, a failing subscriber must neither fail the request nor starve the others
+                log.error("Appointment event subscriber failed on event {}", event.sequence(), ex);
+            }
+        }
+        return event;
+    }
+
+    // Retained events numbered above the given sequence, oldest first. Empty when some of them are no longer retained,
+    // or the sequence was never reached (it was handed out before a restart).
+    public synchronized Optional<List<AppointmentEvent>> eventsAfter(long sequence) {
+        if (sequence > lastSequence || sequence < lastSequence - recent.size()) {
+            return Optional.empty();
+        }
+        Deque<AppointmentEvent> events = new ArrayDeque<>();
+        for (Iterator<AppointmentEvent> newestFirst = recent.descendingIterator(); newestFirst.hasNext(); ) {
+            AppointmentEvent event = newestFirst.next();
+            if (event.sequence() <= sequence) {
+                break;
+            }
+            events.addFirst(event);
+        }
+        return Optional.of(new ArrayList<>(events));
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+}
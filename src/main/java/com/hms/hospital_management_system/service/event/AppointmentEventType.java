@@ -0,0 +1,11 @@
+package com.hms.hospital_management_system.service.event;
+
+
+public enum AppointmentEventType {
+    CREATED,
+    RESCHEDULED, // New time, length or doctor
+    UPDATED,     // Anything else, e.g. the notes
+    CANCELLED,
+    COMPLETED,
+    DELETED
+}
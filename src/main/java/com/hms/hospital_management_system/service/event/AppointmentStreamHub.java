@@ -0,0 +1,295 @@
+package com.hms.hospital_management_system.service.event;
+
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Fans the {@link AppointmentEventLog} out to server-sent event streams, all changes or those of one doctor. An idle
+ * stream is an emitter and an empty buffer, no thread: a virtual thread is started to drain a stream's buffer only
+ * while it has something to send, so a slow client blocks nobody but itself. A stream whose buffer overflows is
+ * closed; the client reconnects with Last-Event-ID and catches up from the log, or is told to reload when the log
+ * no longer holds everything it missed.
+ */
+@Slf4j
+@Component
+public class AppointmentStreamHub implements SmartLifecycle, DisposableBean, MeterBinder {
+
+    public static final String RESET_EVENT = "reset";
+
+    // Sorts after every event, so at most one heartbeat is ever pending per stream
+    private static final Message HEARTBEAT = new Message(Long.MAX_VALUE, null, null);
+
+    private final AppointmentEventLog appointmentEventLog;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+
+    private final Consumer<AppointmentEvent> listener = this::publish;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Subscriber> allChanges = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Subscriber>> byDoctor = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private volatile Counter droppedCounter;
+    private volatile boolean running;
+
+    public AppointmentStreamHub(AppointmentEventLog appointmentEventLog,
+                                ObjectMapper objectMapper,
+                                @Value("${appointments.stream.buffer-size:64}") int bufferSize,
+                                @Value("${appointments.stream.timeout-ms:1800000}") long timeoutMillis,
+                                @Value("${appointments.stream.max-subscribers:20000}") int maxSubscribers) {
+        this.appointmentEventLog = appointmentEventLog;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    @Override
+    public void start() {
+        appointmentEventLog.subscribe(listener);
+        running = true;
+    }
+
+    // Runs before the web server's graceful shutdown, which would otherwise wait for every open stream to end
+    @Override
+    public void stop() {
+        running = false;
+        appointmentEventLog.unsubscribe(listener);
+        allChanges.forEach(Subscriber::close);
+        byDoctor.values().forEach(subscribers -> subscribers.forEach(Subscriber::close));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("hms.appointments.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open appointment event streams")
+                .register(registry);
+        droppedCounter = Counter.builder("hms.appointments.stream.dropped")
+                .description("Appointment event streams closed because the client did not keep up")
+                .register(registry);
+    }
+
+    // doctorId null streams every change. lastEventId is the Last-Event-ID of a reconnecting client, null otherwise.
+    public SseEmitter open(Long doctorId, Long lastEventId) {
+        if (!running) {
+            throw new RejectedExecutionException("Appointment streams are not available, the application is shutting down");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RejectedExecutionException("Too many appointment streams are open, try again later");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(doctorId, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        // Registered before reading the log, so every event is either in the catch-up or delivered live (or both,
+        // the buffer is keyed by sequence). Nothing is sent until the catch-up is buffered.
+        if (doctorId == null) {
+            allChanges.add(subscriber);
+        } else {
+            byDoctor.compute(doctorId, (id, subscribers) -> {
+                Set<Subscriber> doctorSubscribers = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+                doctorSubscribers.add(subscriber);
+                return doctorSubscribers;
+            });
+        }
+        if (lastEventId != null) {
+            Optional<List<AppointmentEvent>> missed = appointmentEventLog.eventsAfter(lastEventId);
+            if (missed.isPresent()) {
+                missed.get().stream().filter(subscriber::wants).map(this::toMessage).forEach(subscriber::offer);
+            } else {
+                subscriber.offer(new Message(Long.MIN_VALUE, RESET_EVENT, String.valueOf(appointmentEventLog.lastSequence())));
+            }
+        }
+        subscriber.offer(HEARTBEAT); // Flushes the response headers, EventSource reports the stream open only then
+        subscriber.start();
+        return emitter;
+    }
+
+    // Keeps proxies and load balancers from closing idle streams
+    @Scheduled(fixedDelayString = "${appointments.stream.heartbeat-interval-ms:25000}")
+    void heartbeat() {
+        allChanges.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+        byDoctor.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT)));
+    }
+
+    int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void destroy() {
+        senders.shutdownNow();
+    }
+
+    // Runs on the committing thread inside the event log: serializes once, only buffers and never blocks
+    private void publish(AppointmentEvent event) {
+        Message message = toMessage(event);
+        if (message == null) {
+            return;
+        }
+        allChanges.forEach(subscriber -> subscriber.offer(message));
+        Set<Long> doctors = new HashSet<>(2);
+        if (event.appointment() != null) {
+            doctors.add(event.appointment().doctorId());
+        }
+        if (event.previous() != null) {
+            doctors.add(event.previous().doctorId());
+        }
+        for (Long doctorId : doctors) {
+            byDoctor.getOrDefault(doctorId, Set.of()).forEach(subscriber -> subscriber.offer(message));
+        }
+    }
+
+    private Message toMessage(AppointmentEvent event) {
+        try {
+            return new Message(event.sequence(), event.type().name(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException ex) {
+            log.error("Could not serialize appointment event {}", event.sequence(), ex);
+            return null;
+        }
+    }
+
+    private record Message(long sequence, String name, String data) {
+    }
+
+    private final class Subscriber {
+
+        private final Long doctorId;
+        private final SseEmitter emitter;
+        private final ConcurrentSkipListMap<Long, Message> pending = new ConcurrentSkipListMap<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean(true); // Held until start(), nothing drains before the catch-up
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(Long doctorId, SseEmitter emitter) {
+            this.doctorId = doctorId;
+            this.emitter = emitter;
+        }
+
+        private boolean wants(AppointmentEvent event) {
+            return doctorId == null
+                    || event.appointment() != null && doctorId.equals(event.appointment().doctorId())
+                    || event.previous() != null && doctorId.equals(event.previous().doctorId());
+        }
+
+        private void offer(Message message) {
+            if (message == null || closed.get()) {
+                return;
+            }
+            if (pending.putIfAbsent(message.sequence(), message) == null && pendingCount.incrementAndGet() > bufferSize) {
+                Counter dropped = droppedCounter;
+                if (dropped != null) {
+                    dropped.increment();
+                }
+                log.debug("Closing appointment stream of doctor {}, {} events pending", doctorId, bufferSize);
+                close();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                send();
+            }
+        }
+
+        private void start() {
+            draining.set(false);
+            if (!pending.isEmpty() && draining.compareAndSet(false, true)) {
+                send();
+            }
+        }
+
+        private void send() {
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                close(); // Shutting down
+            }
+        }
+
+        // Only one drain runs per subscriber at a time, guarded by the draining flag
+        private void drain() {
+            try {
+                do {
+                    Map.Entry<Long, Message> next;
+                    while (!closed.get() && (next = pending.pollFirstEntry()) != null) {
+                        pendingCount.decrementAndGet();
+                        emitter.send(event(next.getValue()));
+                    }
+                    draining.set(false);
+                } while (!pending.isEmpty() && !closed.get() && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException ex) {
+                // The client went away or the emitter already completed
+                close();
+            }
+        }
+
+        private SseEmitter.SseEventBuilder event(Message message) {
+            if (message == HEARTBEAT) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(message.name());
+            if (message.sequence() == Long.MIN_VALUE) {
+                return event.id(message.data()).data(message.data()); // Reset: resume after the current sequence
+            }
+            return event.id(String.valueOf(message.sequence())).data(message.data(), MediaType.APPLICATION_JSON);
+        }
+
+        // Idempotent, may run on the committing thread: completing the emitter can block, so it happens on a sender
+        private void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            if (doctorId == null) {
+                allChanges.remove(this);
+            } else {
+                byDoctor.computeIfPresent(doctorId, (id, subscribers) -> {
+                    subscribers.remove(this);
+                    return subscribers.isEmpty() ? null : subscribers;
+                });
+            }
+            subscriberCount.decrementAndGet();
+            pending.clear();
+            try {
+                senders.execute(emitter::complete);
+            } catch (RejectedExecutionException ex) {
+                emitter.complete();
+            }
+        }
+    }
+}
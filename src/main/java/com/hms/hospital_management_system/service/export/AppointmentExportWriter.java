@@ -0,0 +1,74 @@
+package com.hms.hospital_management_system.service.export;
+
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.hospital_management_system.repository.projection.AppointmentExportRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes export rows one line at a time as they come off the database cursor, so memory use
+ * does not depend on how many rows are exported.
+ */
+@Component
+@RequiredArgsConstructor
+public class AppointmentExportWriter {
+
+    private static final String CSV_HEADER = "id,appointmentTime,endTime,status,notes,patientId,patientFirstName,patientLastName,"
+            + "doctorId,doctorFirstName,doctorLastName,doctorSpecialization";
+
+    // Rows written between two flushes, so the client receives data steadily instead of at the end
+    private static final int FLUSH_EVERY = 500;
+
+    private final ObjectMapper objectMapper;
+
+    public long write(Stream<AppointmentExportRow> rows, ExportFormat format, Writer writer) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long count = 0;
+        Iterator<AppointmentExportRow> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            AppointmentExportRow row = iterator.next();
+            if (format == ExportFormat.CSV) {
+                writeCsv(row, writer);
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+            }
+            writer.write('\n');
+            if (++count % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private void writeCsv(AppointmentExportRow row, Writer writer) throws IOException {
+        Object[] values = {row.id(), row.appointmentTime(), row.endTime(), row.status(), row.notes(), row.patientId(),
+                row.patientFirstName(), row.patientLastName(), row.doctorId(), row.doctorFirstName(),
+                row.doctorLastName(), row.doctorSpecialization()};
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escapeCsv(values[i].toString()));
+            }
+        }
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break, and double embedded quotes
+    static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,236 @@
+package com.hms.hospital_management_system.service.readmodel;
+
+
+import com.hms.hospital_management_system.repository.AppointmentRepository;
+import com.hms.hospital_management_system.repository.projection.AppointmentSnapshot;
+import com.hms.hospital_management_system.service.event.AppointmentEvent;
+import com.hms.hospital_management_system.service.event.AppointmentEventLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Query side of the appointments: every appointment of each doctor and each patient, ordered by time, held in memory
+ * and kept up to date from the {@link AppointmentEventLog}. Listing a doctor's or a patient's appointments is a slice
+ * of an immutable list, no query runs and nothing competes with the booking transactions for connections.
+ * <p>
+ * Only ids are stored for the participants; callers resolve them through the patient and doctor caches, so changes
+ * to a doctor or patient show up without an event. The event log only carries this instance's writes: the model is
+ * reloaded from the database every {@code appointments.read-model.refresh-interval-ms}, which is how long changes
+ * committed by other instances can take to show up. Local changes are applied as soon as they commit.
+ * <p>
+ * The model holds at most {@code appointments.read-model.max-appointments} rows. Beyond that it stays empty, and
+ * the finders return nothing so callers query the database, until a reload finds the table small enough again. The
+ * same happens for one refresh interval when more changes commit during a reload than the event log retains.
+ */
+@Slf4j
+@Component
+public class AppointmentReadModel implements SmartInitializingSingleton {
+
+    private static final String SORT_PROPERTY = "appointmentTime";
+    // Rows read per query (and per transaction) while loading
+    private static final int LOAD_CHUNK_SIZE = 500;
+    private static final Comparator<AppointmentSnapshot> BY_TIME = Comparator.comparing(AppointmentSnapshot::appointmentTime)
+            .thenComparing(AppointmentSnapshot::id);
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentEventLog appointmentEventLog;
+    private final TransactionTemplate readOnly;
+    private final int maxAppointments;
+    private final Consumer<AppointmentEvent> listener = this::apply;
+
+    // Replaced as a whole by every reload, null while the model is unavailable (not loaded yet, or too large)
+    private volatile Model model;
+
+    public AppointmentReadModel(AppointmentRepository appointmentRepository,
+                                AppointmentEventLog appointmentEventLog,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${appointments.read-model.max-appointments:500000}") int maxAppointments) {
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentEventLog = appointmentEventLog;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.maxAppointments = maxAppointments;
+    }
+
+    // Runs before the web server accepts requests
+    @Override
+    public void afterSingletonsInstantiated() {
+        appointmentEventLog.subscribe(listener);
+        reload();
+    }
+
+    // Picks up changes committed by other instances
+    @Scheduled(fixedDelayString = "${appointments.read-model.refresh-interval-ms:60000}",
+            initialDelayString = "${appointments.read-model.refresh-interval-ms:60000}")
+    public void reload() {
+        long loadedAfter = appointmentEventLog.lastSequence();
+        Model loaded = load();
+        synchronized (this) {
+            // Local events appended while loading may or may not be in the rows read, applying them again is harmless
+            if (loaded != null) {
+                Optional<List<AppointmentEvent>> missed = appointmentEventLog.eventsAfter(loadedAfter);
+                if (missed.isEmpty()) {
+                    // More changes committed while loading than the log retains, the rows read may lack some of them
+                    log.warn("Appointment event log overflowed while the read model was loading, listings go to the database until the next reload");
+                    model = null;
+                    return;
+                }
+                missed.get().forEach(event -> loaded.apply(event, maxAppointments));
+            }
+            model = loaded != null && !loaded.overflowed ? loaded : null;
+        }
+    }
+
+    // Sorting by anything but the appointment time has to go to the database
+    public static boolean supports(Sort sort) {
+        return sort.isUnsorted() || (sort.stream().count() == 1 && sort.getOrderFor(SORT_PROPERTY) != null);
+    }
+
+    // Empty when the model cannot answer: the sort is not by time, or the model is unavailable
+    public Optional<Page<AppointmentSnapshot>> findByDoctor(Long doctorId, Pageable pageable) {
+        Model current = model;
+        if (current == null || !supports(pageable.getSort())) {
+            return Optional.empty();
+        }
+        return Optional.of(page(current.byDoctor.getOrDefault(doctorId, List.of()), pageable));
+    }
+
+    public Optional<Page<AppointmentSnapshot>> findByPatient(Long patientId, Pageable pageable) {
+        Model current = model;
+        if (current == null || !supports(pageable.getSort())) {
+            return Optional.empty();
+        }
+        return Optional.of(page(current.byPatient.getOrDefault(patientId, List.of()), pageable));
+    }
+
+    // Called by the event log one event at a time, in sequence order
+    synchronized void apply(AppointmentEvent event) {
+        Model current = model;
+        if (current == null) {
+            return;
+        }
+        current.apply(event, maxAppointments);
+        if (current.overflowed) {
+            log.warn("Appointment read model exceeds {} appointments, listings go to the database", maxAppointments);
+            model = null;
+        }
+    }
+
+    private Model load() {
+        Map<Long, AppointmentSnapshot> byId = new HashMap<>();
+        Map<Long, List<AppointmentSnapshot>> doctors = new HashMap<>();
+        Map<Long, List<AppointmentSnapshot>> patients = new HashMap<>();
+        List<AppointmentSnapshot> chunk;
+        long afterId = 0;
+        do {
+            long from = afterId;
+            chunk = readOnly.execute(status -> appointmentRepository.findSnapshotsAfter(from, Limit.of(LOAD_CHUNK_SIZE)));
+            for (AppointmentSnapshot row : chunk) {
+                if (byId.size() == maxAppointments) {
+                    log.warn("More than {} appointments, the read model is disabled and listings go to the database", maxAppointments);
+                    return null;
+                }
+                byId.put(row.id(), row);
+                doctors.computeIfAbsent(row.doctorId(), id -> new ArrayList<>()).add(row);
+                patients.computeIfAbsent(row.patientId(), id -> new ArrayList<>()).add(row);
+                afterId = row.id();
+            }
+        } while (chunk.size() == LOAD_CHUNK_SIZE);
+        Model loaded = new Model();
+        loaded.byId.putAll(byId);
+        doctors.forEach((id, rows) -> loaded.byDoctor.put(id, sorted(rows)));
+        patients.forEach((id, rows) -> loaded.byPatient.put(id, sorted(rows)));
+        return loaded;
+    }
+
+    private static Page<AppointmentSnapshot> page(List<AppointmentSnapshot> rows, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(ordered(rows, pageable.getSort()), pageable, rows.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        int to = Math.min(from + pageable.getPageSize(), rows.size());
+        Sort.Order order = pageable.getSort().getOrderFor(SORT_PROPERTY);
+        List<AppointmentSnapshot> content = order != null && order.isDescending()
+                ? reversed(rows.subList(rows.size() - to, rows.size() - from))
+                : rows.subList(from, to);
+        return new PageImpl<>(content, pageable, rows.size());
+    }
+
+    private static List<AppointmentSnapshot> ordered(List<AppointmentSnapshot> rows, Sort sort) {
+        Sort.Order order = sort.getOrderFor(SORT_PROPERTY);
+        return order != null && order.isDescending() ? reversed(rows) : rows;
+    }
+
+    private static List<AppointmentSnapshot> reversed(List<AppointmentSnapshot> rows) {
+        List<AppointmentSnapshot> copy = new ArrayList<>(rows);
+        Collections.reverse(copy);
+        return copy;
+    }
+
+    private static List<AppointmentSnapshot> sorted(List<AppointmentSnapshot> rows) {
+        rows.sort(BY_TIME);
+        return Collections.unmodifiableList(rows);
+    }
+
+    private static List<AppointmentSnapshot> with(List<AppointmentSnapshot> rows, List<AppointmentSnapshot> added) {
+        AppointmentSnapshot row = added.get(0);
+        int found = Collections.binarySearch(rows, row, BY_TIME);
+        int position = found >= 0 ? found : -found - 1;
+        List<AppointmentSnapshot> copy = new ArrayList<>(rows.size() + 1);
+        copy.addAll(rows.subList(0, position));
+        copy.add(row);
+        copy.addAll(rows.subList(found >= 0 ? position + 1 : position, rows.size()));
+        return Collections.unmodifiableList(copy);
+    }
+
+    private static List<AppointmentSnapshot> without(List<AppointmentSnapshot> rows, AppointmentSnapshot removed) {
+        List<AppointmentSnapshot> copy = new ArrayList<>(rows);
+        copy.remove(removed);
+        return copy.isEmpty() ? null : Collections.unmodifiableList(copy);
+    }
+
+    private static final class Model {
+
+        private final Map<Long, AppointmentSnapshot> byId = new ConcurrentHashMap<>();
+        // Immutable lists ordered by BY_TIME, replaced as a whole on every change (copy on write)
+        private final Map<Long, List<AppointmentSnapshot>> byDoctor = new ConcurrentHashMap<>();
+        private final Map<Long, List<AppointmentSnapshot>> byPatient = new ConcurrentHashMap<>();
+        private boolean overflowed;
+
+        // Idempotent: applying an event the model already reflects leaves it unchanged
+        private void apply(AppointmentEvent event, int maxAppointments) {
+            AppointmentSnapshot previous = event.appointment() == null
+                    ? byId.remove(event.appointmentId())
+                    : byId.put(event.appointmentId(), event.appointment());
+            if (previous != null) {
+                byDoctor.computeIfPresent(previous.doctorId(), (id, rows) -> without(rows, previous));
+                byPatient.computeIfPresent(previous.patientId(), (id, rows) -> without(rows, previous));
+            }
+            if (event.appointment() != null) {
+                byDoctor.merge(event.appointment().doctorId(), List.of(event.appointment()), AppointmentReadModel::with);
+                byPatient.merge(event.appointment().patientId(), List.of(event.appointment()), AppointmentReadModel::with);
+            }
+            overflowed |= byId.size() > maxAppointments;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.hms.hospital_management_system.service.search;
+
+
+import com.hms.hospital_management_system.dto.DoctorResponse;
+import com.hms.hospital_management_system.mapper.DoctorMapper;
+import com.hms.hospital_management_system.repository.DoctorRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory inverted index over doctor names and specializations, so searching never scans the doctor table.
+ * <p>
+ * Every word is indexed under its character trigrams, with two leading markers so the first letters of a word
+ * form grams of their own. A query word selects the doctors sharing at least one gram with it, and each candidate
+ * is then scored word by word: exact words rank above prefixes, which rank above words within one or two typos.
+ * Every query word has to match for a doctor to be returned.
+ * <p>
+ * The index is warmed from the database at startup and must be kept in sync by {@code DoctorService}
+ * once its transactions have committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class DoctorSearchIndex implements SmartInitializingSingleton {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final String WORD_START = "$$";
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double SPECIALIZATION_WEIGHT = 1.5;
+
+    private final DoctorRepository doctorRepository;
+    private final DoctorMapper doctorMapper;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedDoctor> doctors = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        doctorRepository.findAll().forEach(doctor -> put(doctorMapper.toDto(doctor)));
+    }
+
+    // Best matches first; the sort of the pageable is ignored since results are ordered by relevance
+    public Page<DoctorResponse> search(String query, Pageable pageable) {
+        List<String> terms = SearchText.tokens(query);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        List<ScoredDoctor> hits = new ArrayList<>();
+        for (Long id : candidates(terms)) {
+            IndexedDoctor doctor = doctors.get(id);
+            double score = doctor != null ? doctor.score(terms) : 0; // null when removed while searching
+            if (score > 0) {
+                hits.add(new ScoredDoctor(doctor.doctor(), score));
+            }
+        }
+        hits.sort(ScoredDoctor.RANKING);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(hits.stream().map(ScoredDoctor::doctor).toList());
+        }
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + pageable.getPageSize(), hits.size());
+        return new PageImpl<>(hits.subList(from, to).stream().map(ScoredDoctor::doctor).toList(), pageable, hits.size());
+    }
+
+    // Doctors whose specialization contains the given text, ignoring case and accents, by id. Query words of at least
+    // a gram's length share a gram with any word containing them, so only their candidates are checked
+    public List<DoctorResponse> findBySpecialization(String specialization) {
+        List<String> terms = SearchText.tokens(specialization);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        String wanted = String.join(" ", terms);
+        Collection<Long> ids = terms.stream().allMatch(term -> term.length() >= GRAM_LENGTH) ? candidates(terms) : doctors.keySet();
+        List<DoctorResponse> matches = new ArrayList<>();
+        for (Long id : ids) {
+            IndexedDoctor doctor = doctors.get(id);
+            if (doctor != null && String.join(" ", doctor.specializationWords()).contains(wanted)) {
+                matches.add(doctor.doctor());
+            }
+        }
+        matches.sort(Comparator.comparing(DoctorResponse::getId));
+        return matches;
+    }
+
+    // Registers the current state of a doctor, replacing whatever was indexed for it before
+    public synchronized void put(DoctorResponse doctor) {
+        remove(doctor.getId());
+        IndexedDoctor indexed = IndexedDoctor.of(doctor);
+        doctors.put(doctor.getId(), indexed);
+        for (String gram : indexed.grams()) {
+            postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(doctor.getId());
+        }
+    }
+
+    public synchronized void remove(Long doctorId) {
+        IndexedDoctor previous = doctors.remove(doctorId);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : previous.grams()) {
+            postings.computeIfPresent(gram, (key, ids) -> ids.remove(doctorId) && ids.isEmpty() ? null : ids);
+        }
+    }
+
+    // Doctors sharing at least one gram with every query word
+    private Set<Long> candidates(List<String> terms) {
+        Set<Long> candidates = null;
+        for (String term : terms) {
+            Set<Long> matches = new HashSet<>();
+            for (String gram : grams(term)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    matches.addAll(ids);
+                }
+            }
+            if (candidates == null) {
+                candidates = matches;
+            } else {
+                candidates.retainAll(matches);
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    static Set<String> grams(String word) {
+        String padded = WORD_START + word;
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    // 1 for the same word, less for a prefix of it, less again for a word or prefix within one or two typos
+    static double match(String term, String word) {
+        if (word.equals(term)) {
+            return 1.0;
+        }
+        if (word.startsWith(term)) {
+            return 0.6 + 0.3 * term.length() / word.length();
+        }
+        int maxEdits = term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+        if (maxEdits == 0) {
+            return 0;
+        }
+        int distance = SearchText.editDistance(term, word, maxEdits);
+        if (distance <= maxEdits) {
+            return 0.5 - 0.1 * distance;
+        }
+        for (int length = term.length() - 1; length <= term.length() + 1 && length < word.length(); length++) {
+            distance = SearchText.editDistance(term, word.substring(0, length), maxEdits);
+            if (distance <= maxEdits) {
+                return 0.4 - 0.1 * distance;
+            }
+        }
+        return 0;
+    }
+
+    private record IndexedDoctor(DoctorResponse doctor, List<String> nameWords, List<String> specializationWords) {
+
+        static IndexedDoctor of(DoctorResponse doctor) {
+            List<String> nameWords = new ArrayList<>(SearchText.tokens(doctor.getFirstName()));
+            nameWords.addAll(SearchText.tokens(doctor.getLastName()));
+            return new IndexedDoctor(doctor, nameWords, SearchText.tokens(doctor.getSpecialization()));
+        }
+
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            nameWords.forEach(word -> grams.addAll(DoctorSearchIndex.grams(word)));
+            specializationWords.forEach(word -> grams.addAll(DoctorSearchIndex.grams(word)));
+            return grams;
+        }
+
+        // Sum of the best weighted match of every query word, 0 as soon as one of them matches nothing
+        double score(List<String> terms) {
+            double total = 0;
+            for (String term : terms) {
+                double best = Math.max(NAME_WEIGHT * bestMatch(term, nameWords),
+                        SPECIALIZATION_WEIGHT * bestMatch(term, specializationWords));
+                if (best == 0) {
+                    return 0;
+                }
+                total += best;
+            }
+            return total;
+        }
+
+        private static double bestMatch(String term, List<String> words) {
+            double best = 0;
+            for (String word : words) {
+                best = Math.max(best, match(term, word));
+            }
+            return best;
+        }
+    }
+
+    private record ScoredDoctor(DoctorResponse doctor, double score) {
+
+        static final Comparator<ScoredDoctor> RANKING = Comparator.comparingDouble(ScoredDoctor::score).reversed()
+                .thenComparing(scored -> scored.doctor().getLastName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                .thenComparing(scored -> scored.doctor().getFirstName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                .thenComparing(scored -> scored.doctor().getId());
+    }
+}
@@ -0,0 +1,114 @@
+package com.hms.hospital_management_system.service.search;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Ids matching (part of) a query, sorted, each with a relevance score. Criteria are combined with linear
+ * merges over the primitive arrays: {@link #or} keeps the best score, {@link #and} adds them up.
+ */
+record Matches(long[] ids, float[] scores) {
+
+    static final Matches NONE = new Matches(new long[0], new float[0]);
+
+    // Union of several posting lists, every id getting the same score
+    static Matches of(Collection<PostingList> postings, float score) {
+        List<long[]> arrays = new ArrayList<>(postings.size());
+        int total = 0;
+        for (PostingList posting : postings) {
+            long[] ids = posting.toArray();
+            arrays.add(ids);
+            total += ids.length;
+        }
+        long[] ids = new long[total];
+        int offset = 0;
+        for (long[] array : arrays) {
+            System.arraycopy(array, 0, ids, offset, array.length);
+            offset += array.length;
+        }
+        if (arrays.size() > 1) {
+            Arrays.sort(ids);
+        }
+        int size = 0;
+        for (int i = 0; i < total; i++) {
+            if (size == 0 || ids[size - 1] != ids[i]) {
+                ids[size++] = ids[i];
+            }
+        }
+        float[] scores = new float[size];
+        Arrays.fill(scores, score);
+        return new Matches(size == total ? ids : Arrays.copyOf(ids, size), scores);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    Matches or(Matches other) {
+        long[] ids = new long[size() + other.size()];
+        float[] scores = new float[ids.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < size() || j < other.size()) {
+            if (j == other.size() || (i < size() && this.ids[i] < other.ids[j])) {
+                ids[size] = this.ids[i];
+                scores[size++] = this.scores[i++];
+            } else if (i == size() || other.ids[j] < this.ids[i]) {
+                ids[size] = other.ids[j];
+                scores[size++] = other.scores[j++];
+            } else {
+                ids[size] = this.ids[i];
+                scores[size++] = Math.max(this.scores[i++], other.scores[j++]);
+            }
+        }
+        return new Matches(Arrays.copyOf(ids, size), Arrays.copyOf(scores, size));
+    }
+
+    Matches and(Matches other) {
+        long[] ids = new long[Math.min(size(), other.size())];
+        float[] scores = new float[ids.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < size() && j < other.size()) {
+            if (this.ids[i] < other.ids[j]) {
+                i++;
+            } else if (other.ids[j] < this.ids[i]) {
+                j++;
+            } else {
+                ids[size] = this.ids[i];
+                scores[size++] = this.scores[i++] + other.scores[j++];
+            }
+        }
+        return new Matches(Arrays.copyOf(ids, size), Arrays.copyOf(scores, size));
+    }
+
+    // Ids ranked offset to offset + limit, best score first then lowest id, keeping only offset + limit entries in a heap
+    List<Long> top(int offset, int limit) {
+        Comparator<Integer> ranking = Comparator.<Integer>comparingDouble(index -> scores[index]).reversed()
+                .thenComparingLong(index -> ids[index]);
+        int wanted = (int) Math.min((long) offset + limit, size());
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(1, wanted), ranking.reversed());
+        for (int index = 0; index < size() && wanted > 0; index++) {
+            if (heap.size() < wanted) {
+                heap.add(index);
+            } else if (ranking.compare(index, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(index);
+            }
+        }
+        List<Integer> ranked = new ArrayList<>(heap);
+        ranked.sort(ranking);
+        List<Long> page = new ArrayList<>();
+        for (int rank = offset; rank < ranked.size(); rank++) {
+            page.add(ids[ranked.get(rank)]);
+        }
+        return page;
+    }
+}
@@ -0,0 +1,257 @@
+package com.hms.hospital_management_system.service.search;
+
+
+import com.hms.hospital_management_system.dto.PatientResponse;
+import com.hms.hospital_management_system.repository.PatientRepository;
+import com.hms.hospital_management_system.repository.projection.PatientSearchRow;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.codec.language.DoubleMetaphone;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory patient search over name words, phonetic name codes, phone digits, email and date of birth.
+ * <p>
+ * Only posting lists of patient ids are kept (see {@link PostingList}), keyed by:
+ * <ul>
+ *     <li>name words, in a sorted map so a query word also finds the words it is a prefix of;</li>
+ *     <li>Double Metaphone codes of the name words, so "Jon" finds "John" and "Smyth" finds "Smith";</li>
+ *     <li>phone digits stored reversed, so the last digits of a number are a prefix lookup;</li>
+ *     <li>lower-cased email (exact or prefix) and date of birth.</li>
+ * </ul>
+ * Every given criterion has to match. Patients are ranked by the sum of their per-criterion scores, an exact
+ * word scoring above a prefix, which scores above a phonetic match, and only the requested page is kept in a heap.
+ * <p>
+ * The index is warmed from the database at startup and must be kept in sync by {@code PatientService}
+ * once its transactions have committed. Results are ids: the caller loads the patients of the page.
+ */
+@Component
+@RequiredArgsConstructor
+public class PatientSearchIndex implements SmartInitializingSingleton {
+
+    private static final float EXACT_SCORE = 3;
+    private static final float PREFIX_SCORE = 2;
+    private static final float PHONETIC_SCORE = 1;
+    private static final float EXACT_CONTACT_SCORE = 4; // A full phone number or email is about as specific as it gets
+    private static final float DATE_OF_BIRTH_SCORE = 1;
+    private static final int MIN_PHONE_DIGITS = 4;
+    private static final int MIN_EMAIL_PREFIX = 3;
+    // Patients read per query (and per transaction) while warming up
+    private static final int WARM_UP_CHUNK_SIZE = 1000;
+    private static final int MIN_NATIONAL_NUMBER_DIGITS = 7;
+
+    private static final DoubleMetaphone DOUBLE_METAPHONE = new DoubleMetaphone();
+
+    private final PatientRepository patientRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final NavigableMap<String, PostingList> names = new ConcurrentSkipListMap<>();
+    private final Map<String, PostingList> phoneticCodes = new ConcurrentHashMap<>();
+    private final NavigableMap<String, PostingList> reversedPhones = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, PostingList> emails = new ConcurrentSkipListMap<>();
+    private final Map<LocalDate, PostingList> birthDates = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<PatientSearchRow> chunk;
+        long afterId = 0;
+        do {
+            long from = afterId;
+            chunk = readOnly.execute(status -> patientRepository.findSearchRowsAfter(from, Limit.of(WARM_UP_CHUNK_SIZE)));
+            for (PatientSearchRow row : chunk) {
+                add(Keys.of(row.id(), row.firstName(), row.lastName(), row.email(), row.phone(), row.dateOfBirth()));
+                afterId = row.id();
+            }
+        } while (chunk.size() == WARM_UP_CHUNK_SIZE);
+    }
+
+    public Page<Long> search(PatientSearchQuery query, Pageable pageable) {
+        if (query.isEmpty()) {
+            throw new IllegalArgumentException("Provide a name, phone, email or date of birth to search for.");
+        }
+        // The usually most selective criteria first, so the following merges work on short arrays
+        Matches matches = null;
+        if (query.email() != null && !query.email().isBlank()) {
+            matches = and(matches, emailMatches(query.email().trim().toLowerCase(Locale.ROOT)));
+        }
+        if (query.phone() != null && !query.phone().isBlank()) {
+            matches = and(matches, phoneMatches(digits(query.phone())));
+        }
+        if (query.dateOfBirth() != null) {
+            matches = and(matches, Matches.of(postings(birthDates.get(query.dateOfBirth())), DATE_OF_BIRTH_SCORE));
+        }
+        for (String word : SearchText.tokens(query.name())) {
+            matches = and(matches, nameMatches(word));
+        }
+        if (matches == null) {
+            matches = Matches.NONE; // Only separators in the name
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(matches.top(0, matches.size()));
+        }
+        return new PageImpl<>(matches.top((int) pageable.getOffset(), pageable.getPageSize()), pageable, matches.size());
+    }
+
+    public synchronized void add(PatientResponse patient) {
+        add(Keys.of(patient));
+    }
+
+    public synchronized void replace(PatientResponse previous, PatientResponse current) {
+        remove(Keys.of(previous));
+        add(Keys.of(current));
+    }
+
+    public synchronized void remove(PatientResponse patient) {
+        remove(Keys.of(patient));
+    }
+
+    private synchronized void add(Keys keys) {
+        keys.names().forEach(name -> add(names, name, keys.id()));
+        keys.phoneticCodes().forEach(code -> add(phoneticCodes, code, keys.id()));
+        if (keys.reversedPhone() != null) {
+            add(reversedPhones, keys.reversedPhone(), keys.id());
+        }
+        if (keys.email() != null) {
+            add(emails, keys.email(), keys.id());
+        }
+        if (keys.dateOfBirth() != null) {
+            add(birthDates, keys.dateOfBirth(), keys.id());
+        }
+    }
+
+    private synchronized void remove(Keys keys) {
+        keys.names().forEach(name -> remove(names, name, keys.id()));
+        keys.phoneticCodes().forEach(code -> remove(phoneticCodes, code, keys.id()));
+        if (keys.reversedPhone() != null) {
+            remove(reversedPhones, keys.reversedPhone(), keys.id());
+        }
+        if (keys.email() != null) {
+            remove(emails, keys.email(), keys.id());
+        }
+        if (keys.dateOfBirth() != null) {
+            remove(birthDates, keys.dateOfBirth(), keys.id());
+        }
+    }
+
+    private static <K> void add(Map<K, PostingList> index, K key, long id) {
+        index.computeIfAbsent(key, k -> new PostingList()).add(id);
+    }
+
+    private static <K> void remove(Map<K, PostingList> index, K key, long id) {
+        index.computeIfPresent(key, (k, posting) -> posting.remove(id) ? null : posting);
+    }
+
+    private Matches nameMatches(String word) {
+        Matches matches = Matches.of(postings(names.get(word)), EXACT_SCORE);
+        if (word.length() >= 2) {
+            matches = matches.or(Matches.of(withPrefix(names, word), PREFIX_SCORE));
+        }
+        Set<String> codes = phoneticCodes(word);
+        if (!codes.isEmpty()) {
+            List<PostingList> postings = new ArrayList<>();
+            codes.forEach(code -> postings.addAll(postings(phoneticCodes.get(code))));
+            matches = matches.or(Matches.of(postings, PHONETIC_SCORE));
+        }
+        return matches;
+    }
+
+    // The number itself, numbers ending with the given digits, and numbers the query ends with (a number typed with its country code)
+    private Matches phoneMatches(String digits) {
+        if (digits.length() < MIN_PHONE_DIGITS) {
+            throw new IllegalArgumentException("Phone search needs at least " + MIN_PHONE_DIGITS + " digits.");
+        }
+        String reversed = reverse(digits);
+        Matches matches = Matches.of(postings(reversedPhones.get(reversed)), EXACT_CONTACT_SCORE)
+                .or(Matches.of(withPrefix(reversedPhones, reversed), PREFIX_SCORE));
+        for (int length = MIN_NATIONAL_NUMBER_DIGITS; length < reversed.length(); length++) {
+            matches = matches.or(Matches.of(postings(reversedPhones.get(reversed.substring(0, length))), EXACT_SCORE));
+        }
+        return matches;
+    }
+
+    private Matches emailMatches(String email) {
+        Matches matches = Matches.of(postings(emails.get(email)), EXACT_CONTACT_SCORE);
+        if (email.length() >= MIN_EMAIL_PREFIX) {
+            matches = matches.or(Matches.of(withPrefix(emails, email), PREFIX_SCORE));
+        }
+        return matches;
+    }
+
+    private static Matches and(Matches matches, Matches criterion) {
+        return matches == null ? criterion : matches.size() == 0 ? matches : matches.and(criterion);
+    }
+
+    // Posting lists of the keys starting with the prefix, the prefix itself excluded
+    private static List<PostingList> withPrefix(NavigableMap<String, PostingList> index, String prefix) {
+        return new ArrayList<>(index.subMap(prefix, false, prefix + Character.MAX_VALUE, false).values());
+    }
+
+    private static List<PostingList> postings(PostingList posting) {
+        return posting == null ? List.of() : List.of(posting);
+    }
+
+    static Set<String> phoneticCodes(String word) {
+        Set<String> codes = new LinkedHashSet<>();
+        if (word.length() < 3 || !word.chars().allMatch(Character::isLetter)) {
+            return codes;
+        }
+        String primary = DOUBLE_METAPHONE.doubleMetaphone(word, false);
+        String alternate = DOUBLE_METAPHONE.doubleMetaphone(word, true);
+        if (primary != null && !primary.isEmpty()) {
+            codes.add(primary);
+        }
+        if (alternate != null && !alternate.isEmpty()) {
+            codes.add(alternate);
+        }
+        return codes;
+    }
+
+    static String digits(String phone) {
+        return phone.replaceAll("\\D", "");
+    }
+
+    private static String reverse(String value) {
+        return new StringBuilder(value).reverse().toString();
+    }
+
+    // Everything a patient is indexed under, so the same keys can be removed again when it changes
+    private record Keys(long id, Set<String> names, Set<String> phoneticCodes, String reversedPhone, String email,
+                        LocalDate dateOfBirth) {
+
+        static Keys of(PatientResponse patient) {
+            return of(patient.getId(), patient.getFirstName(), patient.getLastName(), patient.getEmail(),
+                    patient.getPhone(), patient.getDateOfBirth());
+        }
+
+        static Keys of(Long id, String firstName, String lastName, String email, String phone, LocalDate dateOfBirth) {
+            Set<String> names = new LinkedHashSet<>(SearchText.tokens(firstName));
+            names.addAll(SearchText.tokens(lastName));
+            Set<String> codes = new LinkedHashSet<>();
+            names.forEach(name -> codes.addAll(PatientSearchIndex.phoneticCodes(name)));
+            String phoneDigits = phone != null ? digits(phone) : "";
+            return new Keys(id, names, codes,
+                    phoneDigits.isEmpty() ? null : reverse(phoneDigits),
+                    email != null ? email.trim().toLowerCase(Locale.ROOT) : null,
+                    dateOfBirth);
+        }
+    }
+}
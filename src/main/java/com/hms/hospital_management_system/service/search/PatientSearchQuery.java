@@ -0,0 +1,13 @@
+package com.hms.hospital_management_system.service.search;
+
+
+import java.time.LocalDate;
+
+// Criteria of a patient search, any combination of them; patients must match all the given ones
+public record PatientSearchQuery(String name, String phone, String email, LocalDate dateOfBirth) {
+
+    public boolean isEmpty() {
+        return (name == null || name.isBlank()) && (phone == null || phone.isBlank())
+                && (email == null || email.isBlank()) && dateOfBirth == null;
+    }
+}
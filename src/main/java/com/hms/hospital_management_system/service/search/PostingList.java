@@ -0,0 +1,62 @@
+package com.hms.hospital_management_system.service.search;
+
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of ids stored in a primitive array, about 8 bytes per entry instead of the ~50 of a boxed set.
+ * <p>
+ * Readers always see an immutable snapshot, so they never lock. Ids are normally added in increasing order
+ * (new rows get higher ids), which appends into spare capacity without copying; inserting in the middle
+ * or removing copies the array.
+ */
+final class PostingList {
+
+    private volatile Snapshot snapshot = new Snapshot(new long[1], 0);
+
+    synchronized void add(long id) {
+        Snapshot current = snapshot;
+        int size = current.size();
+        if (size > 0 && current.ids()[size - 1] >= id) {
+            int position = Arrays.binarySearch(current.ids(), 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertion = -position - 1;
+            long[] ids = new long[size + 1];
+            System.arraycopy(current.ids(), 0, ids, 0, insertion);
+            ids[insertion] = id;
+            System.arraycopy(current.ids(), insertion, ids, insertion + 1, size - insertion);
+            snapshot = new Snapshot(ids, size + 1);
+            return;
+        }
+        long[] ids = current.ids();
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+        ids[size] = id; // Past the size of every published snapshot, so no reader can see it before the next line
+        snapshot = new Snapshot(ids, size + 1);
+    }
+
+    // Returns true when the list is empty afterwards
+    synchronized boolean remove(long id) {
+        Snapshot current = snapshot;
+        int size = current.size();
+        int position = Arrays.binarySearch(current.ids(), 0, size, id);
+        if (position >= 0) {
+            long[] ids = new long[Math.max(1, size - 1)];
+            System.arraycopy(current.ids(), 0, ids, 0, position);
+            System.arraycopy(current.ids(), position + 1, ids, position, size - position - 1);
+            snapshot = new Snapshot(ids, size - 1);
+        }
+        return snapshot.size() == 0;
+    }
+
+    long[] toArray() {
+        Snapshot current = snapshot;
+        return Arrays.copyOf(current.ids(), current.size());
+    }
+
+    private record Snapshot(long[] ids, int size) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.hms.hospital_management_system.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimitingDataSourceTest {
+
+	private final DataSource pool = mock(DataSource.class);
+	private final Connection pooledConnection = mock(Connection.class);
+	private final ConcurrencyLimitingDataSource dataSource =
+			new ConcurrencyLimitingDataSource(pool, 2, Duration.ofMillis(50));
+
+	@Test
+	void closingAConnectionReturnsItsPermitExactlyOnce() throws SQLException {
+		when(pool.getConnection()).thenReturn(pooledConnection);
+
+		Connection first = dataSource.getConnection();
+		Connection second = dataSource.getConnection();
+		assertThat(dataSource.inUse()).isEqualTo(2);
+
+		first.close();
+		first.close(); // A second close must not hand out an extra permit
+		assertThat(dataSource.inUse()).isEqualTo(1);
+		verify(pooledConnection, times(2)).close();
+
+		second.close();
+		assertThat(dataSource.inUse()).isZero();
+	}
+
+	@Test
+	void callersBeyondTheLimitTimeOutWithATransientError() throws SQLException {
+		when(pool.getConnection()).thenReturn(pooledConnection);
+		dataSource.getConnection();
+		dataSource.getConnection();
+
+		assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+		verify(pool, times(2)).getConnection();
+	}
+
+	@Test
+	void aFailedCheckoutDoesNotLeakItsPermit() throws SQLException {
+		when(pool.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+		assertThatThrownBy(dataSource::getConnection).hasMessage("pool exhausted");
+		assertThat(dataSource.inUse()).isZero();
+	}
+
+	@Test
+	void otherCallsGoStraightToThePooledConnection() throws SQLException {
+		when(pool.getConnection()).thenReturn(pooledConnection);
+		when(pooledConnection.getAutoCommit()).thenReturn(false);
+
+		try (Connection connection = dataSource.getConnection()) {
+			assertThat(connection.getAutoCommit()).isFalse();
+		}
+		verify(pooledConnection).getAutoCommit();
+	}
+}
@@ -0,0 +1,48 @@
+package com.hms.hospital_management_system.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Tests switch metrics export off by default, the Prometheus registry is needed here
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+class ManagementPortTest {
+
+	@LocalServerPort
+	private int port;
+
+	@LocalManagementPort
+	private int managementPort;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@Test
+	void prometheusIsScrapedOnTheManagementPortOnly() throws Exception {
+		HttpResponse<String> scrape = get(managementPort, "/actuator/prometheus");
+		assertThat(scrape.statusCode()).isEqualTo(200);
+		assertThat(scrape.body()).contains("jvm_memory_used_bytes");
+
+		assertThat(get(port, "/actuator/prometheus").statusCode()).isNotEqualTo(200);
+	}
+
+	@Test
+	void otherEndpointsStillNeedAnAdminToken() throws Exception {
+		assertThat(get(managementPort, "/actuator/metrics").statusCode()).isEqualTo(401);
+		assertThat(get(managementPort, "/actuator/caches").statusCode()).isEqualTo(401);
+	}
+
+	private HttpResponse<String> get(int port, String path) throws Exception {
+		return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+				HttpResponse.BodyHandlers.ofString());
+	}
+}
@@ -0,0 +1,136 @@
+package com.hms.hospital_management_system.controller;
+
+import com.hms.hospital_management_system.dto.AppointmentRequest;
+import com.hms.hospital_management_system.dto.DoctorRequest;
+import com.hms.hospital_management_system.dto.PatientRequest;
+import com.hms.hospital_management_system.entity.User;
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.entity.enums.Role;
+import com.hms.hospital_management_system.repository.UserRepository;
+import com.hms.hospital_management_system.security.JwtService;
+import com.hms.hospital_management_system.service.AppointmentService;
+import com.hms.hospital_management_system.service.DoctorService;
+import com.hms.hospital_management_system.service.PatientService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ConditionalRequestTest {
+
+	private static final String PATIENT_JSON = """
+			{"firstName":"Nadia","lastName":"Okafor","email":"nadia.okafor@etag.test","phone":"+1-555-600001",
+			 "dateOfBirth":"1990-02-11","medicalHistory":"%s"}""";
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private PatientService patientService;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	@Autowired
+	private AppointmentService appointmentService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JwtService jwtService;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+	private String token;
+
+	@BeforeEach
+	void logIn() {
+		User admin = userRepository.findByEmail("records@etag.test").orElseGet(() -> userRepository.save(User.builder()
+				.email("records@etag.test").password("unused").role(Role.ADMIN).build()));
+		token = jwtService.generateToken(admin);
+	}
+
+	@Test
+	void revalidatesAgainstTheVersionAndRejectsStaleUpdates() throws Exception {
+		Long id = patientService.createPatient(PatientRequest.builder().firstName("Nadia").lastName("Okafor")
+				.email("nadia.okafor@etag.test").phone("+1-555-600001").dateOfBirth(LocalDate.of(1990, 2, 11)).build()).getId();
+		String path = "/api/patients/" + id;
+
+		HttpResponse<String> first = send(get(path));
+		assertThat(first.statusCode()).isEqualTo(200);
+		assertThat(first.headers().firstValue("ETag")).hasValue("\"0\"");
+
+		HttpResponse<String> unchanged = send(get(path).header("If-None-Match", "\"0\""));
+		assertThat(unchanged.statusCode()).isEqualTo(304);
+		assertThat(unchanged.body()).isEmpty();
+
+		HttpResponse<String> updated = send(put(path, PATIENT_JSON.formatted("Asthma")).header("If-Match", "\"0\""));
+		assertThat(updated.statusCode()).isEqualTo(200);
+		assertThat(updated.headers().firstValue("ETag")).hasValue("\"1\"");
+
+		// A second writer still holding version 0 would overwrite the first one's change
+		HttpResponse<String> stale = send(put(path, PATIENT_JSON.formatted("None")).header("If-Match", "\"0\""));
+		assertThat(stale.statusCode()).isEqualTo(412);
+
+		HttpResponse<String> changed = send(get(path).header("If-None-Match", "\"0\""));
+		assertThat(changed.statusCode()).isEqualTo(200);
+		assertThat(changed.body()).contains("Asthma");
+		assertThat(changed.headers().firstValue("ETag")).hasValue("\"1\"");
+	}
+
+	@Test
+	void appointmentTagChangesWithTheEmbeddedDoctor() throws Exception {
+		Long doctorId = doctorService.createDoctor(DoctorRequest.builder().firstName("Tomas").lastName("Berg")
+				.email("tomas.berg@etag.test").phone("+1-555-600002").specialization("Neurology").build()).getId();
+		Long patientId = patientService.createPatient(PatientRequest.builder().firstName("Yuki").lastName("Sato")
+				.email("yuki.sato@etag.test").phone("+1-555-600003").dateOfBirth(LocalDate.of(1984, 7, 30)).build()).getId();
+		Long id = appointmentService.createAppointment(AppointmentRequest.builder().doctorId(doctorId).patientId(patientId)
+				.appointmentTime(LocalDate.now().plusDays(6).atTime(LocalTime.of(14, 0)))
+				.status(AppointmentStatus.SCHEDULED).build()).getId();
+		String path = "/api/appointments/" + id;
+
+		String tag = send(get(path)).headers().firstValue("ETag").orElseThrow();
+		assertThat(tag).isEqualTo("\"0-0-0\"");
+		assertThat(send(get(path).header("If-None-Match", tag)).statusCode()).isEqualTo(304);
+
+		doctorService.updateDoctor(doctorId, DoctorRequest.builder().firstName("Tomas").lastName("Berg")
+				.email("tomas.berg@etag.test").phone("+1-555-600002").specialization("Neurosurgery").build(), null);
+		HttpResponse<String> changed = send(get(path).header("If-None-Match", tag));
+		assertThat(changed.statusCode()).isEqualTo(200);
+		assertThat(changed.body()).contains("Neurosurgery");
+	}
+
+	@Test
+	void rejectsMalformedPreconditions() {
+		assertThat(ETags.expectedVersion(null)).isNull();
+		assertThat(ETags.expectedVersion("*")).isNull();
+		assertThat(ETags.expectedVersion("\"4-1-2\"")).isEqualTo(4L);
+		assertThatThrownBy(() -> ETags.expectedVersion("W/\"4\"")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ETags.expectedVersion("\"4\", \"5\"")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private HttpRequest.Builder get(String path) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.header("Authorization", "Bearer " + token);
+	}
+
+	private HttpRequest.Builder put(String path, String json) {
+		return get(path).header("Content-Type", "application/json").PUT(HttpRequest.BodyPublishers.ofString(json));
+	}
+
+	private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+		return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+	}
+}
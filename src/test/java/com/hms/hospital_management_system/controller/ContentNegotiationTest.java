@@ -0,0 +1,121 @@
+package com.hms.hospital_management_system.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.hms.hospital_management_system.dto.PatientRequest;
+import com.hms.hospital_management_system.entity.User;
+import com.hms.hospital_management_system.entity.enums.Role;
+import com.hms.hospital_management_system.repository.PatientRepository;
+import com.hms.hospital_management_system.repository.UserRepository;
+import com.hms.hospital_management_system.security.JwtService;
+import com.hms.hospital_management_system.service.PatientService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ContentNegotiationTest {
+
+	private static final String LISTING = "/api/patients?size=40&sort=id";
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private PatientService patientService;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+	private String token;
+
+	@BeforeEach
+	void setUp() {
+		User admin = userRepository.findByEmail("records@negotiation.test").orElseGet(() -> userRepository.save(User.builder()
+				.email("records@negotiation.test").password("unused").role(Role.ADMIN).build()));
+		token = jwtService.generateToken(admin);
+		if (patientRepository.findByEmail("patient0@negotiation.test").isEmpty()) {
+			for (int i = 0; i < 40; i++) {
+				patientService.createPatient(PatientRequest.builder().firstName("Patient" + i).lastName("Negotiation")
+						.email("patient" + i + "@negotiation.test").phone("+1-555-8" + String.format("%05d", i))
+						.dateOfBirth(LocalDate.of(1980, 1, 1).plusDays(i)).medicalHistory("Seasonal allergies, mild asthma").build());
+			}
+		}
+	}
+
+	@Test
+	void gzipsLargeJsonResponsesOnlyForClientsThatAcceptIt() throws Exception {
+		HttpResponse<byte[]> plain = send(LISTING, "application/json", null);
+		assertThat(plain.headers().firstValue("Content-Encoding")).isEmpty();
+
+		HttpResponse<byte[]> gzipped = send(LISTING, "application/json", "gzip");
+		assertThat(gzipped.headers().firstValue("Content-Encoding")).hasValue("gzip");
+		assertThat(gzipped.body().length).isLessThan(plain.body().length / 2);
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.body()))) {
+			assertThat(objectMapper.readTree(in)).isEqualTo(objectMapper.readTree(plain.body()));
+		}
+	}
+
+	@Test
+	void leavesResponsesBelowTheThresholdUncompressed() throws Exception {
+		HttpResponse<byte[]> response = send("/api/patients?size=1", "application/json", "gzip");
+		assertThat(response.body().length).isLessThan(2048);
+		assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+	}
+
+	@Test
+	void servesSmileAndCborWhenAskedForAndJsonOtherwise() throws Exception {
+		JsonNode json = objectMapper.readTree(send(LISTING, "application/json", null).body());
+
+		HttpResponse<byte[]> smile = send(LISTING, "application/x-jackson-smile", null);
+		assertThat(smile.headers().firstValue("Content-Type")).hasValue("application/x-jackson-smile");
+		assertThat(new ObjectMapper(new SmileFactory()).readTree(smile.body())).isEqualTo(json);
+
+		HttpResponse<byte[]> cbor = send(LISTING, "application/cbor", null);
+		assertThat(cbor.headers().firstValue("Content-Type")).hasValue("application/cbor");
+		assertThat(new ObjectMapper(new CBORFactory()).readTree(cbor.body())).isEqualTo(json);
+
+		// Dates keep their ISO form, the binary formats share the JSON converter's settings
+		assertThat(new ObjectMapper(new CBORFactory()).readTree(cbor.body()).at("/content/0/dateOfBirth").isTextual()).isTrue();
+
+		HttpResponse<byte[]> any = send(LISTING, "*/*", null);
+		assertThat(any.headers().firstValue("Content-Type")).hasValue("application/json");
+	}
+
+	private HttpResponse<byte[]> send(String path, String accept, String acceptEncoding) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.header("Authorization", "Bearer " + token)
+				.header("Accept", accept);
+		if (acceptEncoding != null) {
+			request.header("Accept-Encoding", acceptEncoding);
+		}
+		HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+		assertThat(response.statusCode()).isEqualTo(200);
+		return response;
+	}
+}
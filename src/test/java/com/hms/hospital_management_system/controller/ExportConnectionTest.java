@@ -0,0 +1,129 @@
+package com.hms.hospital_management_system.controller;
+
+import com.hms.hospital_management_system.config.ConcurrencyLimitingDataSource;
+import com.hms.hospital_management_system.entity.Appointment;
+import com.hms.hospital_management_system.entity.Doctor;
+import com.hms.hospital_management_system.entity.Patient;
+import com.hms.hospital_management_system.entity.User;
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.entity.enums.Role;
+import com.hms.hospital_management_system.repository.AppointmentRepository;
+import com.hms.hospital_management_system.repository.DoctorRepository;
+import com.hms.hospital_management_system.repository.PatientRepository;
+import com.hms.hospital_management_system.repository.UserRepository;
+import com.hms.hospital_management_system.security.JwtService;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Own context with its own database, so its schema and seeded rows stay out of the shared test database
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties =
+		"spring.datasource.url=jdbc:h2:mem:export_connection_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class ExportConnectionTest {
+
+	private static final int ROWS = 1200;
+
+	// Connections in use each time the export flushes, that is after each chunk of rows has been written
+	private static final List<Integer> IN_USE_AT_FLUSH = new CopyOnWriteArrayList<>();
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Test
+	void slowDownloadsReleaseTheConnectionBetweenChunks() throws Exception {
+		Doctor doctor = doctorRepository.save(Doctor.builder().firstName("Export").lastName("Doctor")
+				.email("doctor@export.test").phone("+1-555-600001").specialization("Pathology").build());
+		Patient patient = patientRepository.save(Patient.builder().firstName("Export").lastName("Patient")
+				.email("patient@export.test").phone("+1-555-600002").dateOfBirth(LocalDate.of(1960, 2, 2)).build());
+		LocalDateTime start = LocalDateTime.of(2040, 1, 1, 8, 0);
+		List<Appointment> appointments = new ArrayList<>();
+		for (int i = 0; i < ROWS; i++) {
+			appointments.add(Appointment.builder().doctor(doctor).patient(patient).appointmentTime(start.plusMinutes(30L * i))
+					.status(AppointmentStatus.COMPLETED).build());
+		}
+		appointmentRepository.saveAll(appointments);
+		String token = jwtService.generateToken(userRepository.save(User.builder()
+				.email("reports@export.test").password("unused").role(Role.ADMIN).build()));
+		IN_USE_AT_FLUSH.clear();
+
+		HttpResponse<String> export = HttpClient.newHttpClient().send(HttpRequest.newBuilder(
+						URI.create("http://localhost:" + port + "/api/appointments/export?format=ndjson"))
+				.header("Authorization", "Bearer " + token).build(), HttpResponse.BodyHandlers.ofString());
+
+		assertThat(export.statusCode()).isEqualTo(200);
+		assertThat(export.body().lines().count()).isGreaterThanOrEqualTo(ROWS);
+		assertThat(IN_USE_AT_FLUSH).hasSizeGreaterThanOrEqualTo(3).containsOnly(0);
+	}
+
+	@TestConfiguration
+	static class SlowClient {
+
+		// Stands in for a client reading slowly: every flush of the export takes a while.
+		// Filters are built before the data source is wrapped, so the limiter is looked up on use
+		@Bean
+		FilterRegistrationBean<Filter> slowExportClient(ObjectProvider<ConcurrencyLimitingDataSource> dataSource) {
+			FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>((request, response, chain) ->
+					chain.doFilter(request, new HttpServletResponseWrapper((HttpServletResponse) response) {
+						private PrintWriter writer;
+
+						@Override
+						public PrintWriter getWriter() throws IOException {
+							if (writer == null) {
+								writer = new PrintWriter(super.getWriter()) {
+									@Override
+									public void flush() {
+										IN_USE_AT_FLUSH.add(dataSource.getObject().inUse());
+										try {
+											Thread.sleep(50);
+										} catch (InterruptedException ex) {
+											Thread.currentThread().interrupt();
+										}
+										super.flush();
+									}
+								};
+							}
+							return writer;
+						}
+					}));
+			registration.addUrlPatterns("/api/appointments/export");
+			return registration;
+		}
+	}
+}
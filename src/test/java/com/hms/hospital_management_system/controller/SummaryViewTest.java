@@ -0,0 +1,131 @@
+package com.hms.hospital_management_system.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.hospital_management_system.dto.AppointmentRequest;
+import com.hms.hospital_management_system.dto.DoctorRequest;
+import com.hms.hospital_management_system.dto.PatientRequest;
+import com.hms.hospital_management_system.entity.User;
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.entity.enums.Role;
+import com.hms.hospital_management_system.repository.UserRepository;
+import com.hms.hospital_management_system.security.JwtService;
+import com.hms.hospital_management_system.service.AppointmentService;
+import com.hms.hospital_management_system.service.DoctorService;
+import com.hms.hospital_management_system.service.PatientService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class SummaryViewTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private PatientService patientService;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	@Autowired
+	private AppointmentService appointmentService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+	private String token;
+
+	@BeforeEach
+	void logIn() {
+		User admin = userRepository.findByEmail("records@summary.test").orElseGet(() -> userRepository.save(User.builder()
+				.email("records@summary.test").password("unused").role(Role.ADMIN).build()));
+		token = jwtService.generateToken(admin);
+	}
+
+	@Test
+	void sideLoadsTheDoctorOnceInsteadOfEmbeddingItInEveryRow() throws Exception {
+		Long doctorId = doctorService.createDoctor(DoctorRequest.builder().firstName("Amara").lastName("Eze")
+				.email("amara.eze@summary.test").phone("+1-555-700001").specialization("Cardiology")
+				.qualifications("MD, FACC").build()).getId();
+		Long firstPatientId = createPatient("Jonas", "Weber", "jonas.weber@summary.test", "+1-555-700002");
+		Long secondPatientId = createPatient("Priya", "Nair", "priya.nair@summary.test", "+1-555-700003");
+		LocalDateTime time = LocalDate.now().plusDays(8).atTime(LocalTime.of(9, 0));
+		for (int i = 0; i < 3; i++) {
+			appointmentService.createAppointment(AppointmentRequest.builder().doctorId(doctorId)
+					.patientId(i == 1 ? secondPatientId : firstPatientId).appointmentTime(time.plusHours(i))
+					.status(AppointmentStatus.SCHEDULED).notes("Follow-up " + i).build());
+		}
+
+		// Served from the read model, and from the database for a sort the model cannot answer
+		for (String query : new String[] {"view=summary", "view=summary&sort=status"}) {
+			JsonNode page = getJson("/api/appointments/doctor/" + doctorId + "?" + query);
+			assertThat(page.get("content")).hasSize(3);
+			assertThat(page.get("totalElements").asLong()).isEqualTo(3);
+			assertThat(page.get("doctors")).hasSize(1);
+			assertThat(page.get("doctors").get(String.valueOf(doctorId)).get("specialization").asText()).isEqualTo("Cardiology");
+			assertThat(page.get("patients")).hasSize(2);
+			assertThat(page.get("patients").has(String.valueOf(secondPatientId))).isTrue();
+
+			JsonNode row = page.get("content").get(0);
+			assertThat(row.get("doctorId").asLong()).isEqualTo(doctorId);
+			assertThat(row.has("doctor")).isFalse();
+			assertThat(row.has("notes")).isFalse();
+		}
+
+		// Without the view parameter the listing is unchanged
+		JsonNode full = getJson("/api/appointments/doctor/" + doctorId);
+		assertThat(full.get("content").get(0).get("doctor").get("qualifications").asText()).isEqualTo("MD, FACC");
+	}
+
+	@Test
+	void patientSummariesLeaveOutTheMedicalRecord() throws Exception {
+		patientService.createPatient(PatientRequest.builder().firstName("Elif").lastName("Demir")
+				.email("elif.demir@summary.test").phone("+1-555-700004").dateOfBirth(LocalDate.of(1992, 4, 17))
+				.medicalHistory("Hypertension").allergies("Penicillin").build());
+
+		JsonNode page = getJson("/api/patients?view=summary&size=500");
+		JsonNode patient = null;
+		for (JsonNode row : page.get("content")) {
+			if ("elif.demir@summary.test".equals(row.get("email").asText())) {
+				patient = row;
+			}
+		}
+		assertThat(patient).isNotNull();
+		assertThat(patient.get("dateOfBirth").asText()).isEqualTo("1992-04-17");
+		assertThat(patient.has("medicalHistory")).isFalse();
+		assertThat(patient.has("allergies")).isFalse();
+	}
+
+	private Long createPatient(String firstName, String lastName, String email, String phone) {
+		return patientService.createPatient(PatientRequest.builder().firstName(firstName).lastName(lastName)
+				.email(email).phone(phone).dateOfBirth(LocalDate.of(1988, 1, 5)).build()).getId();
+	}
+
+	private JsonNode getJson(String path) throws Exception {
+		HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.header("Authorization", "Bearer " + token).build(), HttpResponse.BodyHandlers.ofString());
+		assertThat(response.statusCode()).isEqualTo(200);
+		return objectMapper.readTree(response.body());
+	}
+}
@@ -0,0 +1,58 @@
+package com.hms.hospital_management_system.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies and error count of one kind of request. Not thread-safe: every client records into its own
+ * instance and the instances are merged once the run is over.
+ */
+final class LatencyStats {
+
+	private long[] latencies = new long[1024];
+	private int count;
+	private long errors;
+	private boolean sorted;
+
+	void record(long nanos, boolean error) {
+		if (count == latencies.length) {
+			latencies = Arrays.copyOf(latencies, count * 2);
+		}
+		latencies[count++] = nanos;
+		if (error) {
+			errors++;
+		}
+		sorted = false;
+	}
+
+	LatencyStats merge(LatencyStats other) {
+		if (count + other.count > latencies.length) {
+			latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+		}
+		System.arraycopy(other.latencies, 0, latencies, count, other.count);
+		count += other.count;
+		errors += other.errors;
+		sorted = false;
+		return this;
+	}
+
+	long count() {
+		return count;
+	}
+
+	long errors() {
+		return errors;
+	}
+
+	// Latency in milliseconds below which p percent of the requests completed, 100 for the maximum
+	double percentileMillis(double p) {
+		if (count == 0) {
+			return 0;
+		}
+		if (!sorted) {
+			Arrays.sort(latencies, 0, count);
+			sorted = true;
+		}
+		int index = (int) Math.ceil(p / 100.0 * count) - 1;
+		return latencies[Math.max(0, Math.min(count - 1, index))] / 1e6;
+	}
+}
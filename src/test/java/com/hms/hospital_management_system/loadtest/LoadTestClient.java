@@ -0,0 +1,69 @@
+package com.hms.hospital_management_system.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Executors;
+
+// Thin JSON-over-HTTP client shared by the load tests, one connection pool for all simulated clients
+final class LoadTestClient {
+
+	private final HttpClient http = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.build();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final String baseUrl;
+
+	LoadTestClient(String baseUrl) {
+		this.baseUrl = baseUrl;
+	}
+
+	HttpResponse<String> get(String path, String token) throws IOException, InterruptedException {
+		return http.send(request(path, token).GET().build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+	// Only the status is needed, the body is read and dropped
+	int getStatus(String path, String token) throws IOException, InterruptedException {
+		return http.send(request(path, token).GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+
+	HttpResponse<String> post(String path, String token, Object body) throws IOException, InterruptedException {
+		HttpRequest request = request(path, token)
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+				.build();
+		return http.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	// POST that must succeed, used while setting up a run
+	JsonNode postOk(String path, String token, Object body) throws IOException, InterruptedException {
+		HttpResponse<String> response = post(path, token, body);
+		if (response.statusCode() / 100 != 2) {
+			throw new IllegalStateException("POST " + path + " answered " + response.statusCode() + ": " + response.body());
+		}
+		return json(response.body());
+	}
+
+	JsonNode json(String body) {
+		try {
+			return objectMapper.readTree(body);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private HttpRequest.Builder request(String path, String token) {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path));
+		if (token != null) {
+			request.header("Authorization", "Bearer " + token);
+		}
+		return request;
+	}
+}
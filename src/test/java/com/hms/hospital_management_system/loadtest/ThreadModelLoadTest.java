@@ -0,0 +1,148 @@
+package com.hms.hospital_management_system.loadtest;
+
+import com.hms.hospital_management_system.HospitalManagementSystemApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the web tier on platform threads (Tomcat's default pool of 200) and on virtual threads under the same
+ * burst of concurrent clients. Every request lists a doctor's appointments, so it spends most of its time blocked
+ * on JDBC; a fixed delay on each connection checkout stands in for the network round trips to MySQL.
+ * <p>
+ * Not part of the default build, run it with {@code mvn test -Pload-test}. Tune it with
+ * {@code -Dload.clients}, {@code -Dload.seconds} and {@code -Dload.db-latency-ms}.
+ */
+@Tag("load")
+class ThreadModelLoadTest {
+
+	private static final int CLIENTS = Integer.getInteger("load.clients", 400);
+	private static final int SECONDS = Integer.getInteger("load.seconds", 10);
+	private static final int WARMUP_SECONDS = 2;
+
+	@Test
+	void platformVersusVirtualThreads() throws Exception {
+		LatencyStats platform = run(false);
+		LatencyStats virtual = run(true);
+
+		System.out.printf("%n%-10s %10s %10s %10s %10s %8s%n", "threads", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+		print("platform", platform);
+		print("virtual", virtual);
+		assertThat(platform.count()).isPositive();
+		assertThat(virtual.count()).isPositive();
+		assertThat(virtual.errors()).isLessThanOrEqualTo(virtual.count() / 100);
+	}
+
+	private LatencyStats run(boolean virtualThreads) throws Exception {
+		String name = virtualThreads ? "virtual" : "platform";
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+				HospitalManagementSystemApplication.class, SimulatedDatabaseLatency.class)
+				.properties(
+						"server.port=0",
+						"spring.threads.virtual.enabled=" + virtualThreads,
+						"spring.datasource.url=jdbc:h2:mem:load_" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+						// Keeps a burst queued on the limiter for the whole run instead of failing after the default 2 s
+						"db.limiter.acquire-timeout-ms=30000")
+				.run()) {
+			LoadTestClient client = new LoadTestClient("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+			String token = client.postOk("/api/auth/register", null,
+					Map.of("email", "load@hms.test", "password", "secret123", "role", "ADMIN")).get("token").asText();
+			long doctorId = client.postOk("/api/doctors", token, Map.of("firstName", "Load", "lastName", "Test",
+					"email", "doctor@hms.test", "phone", "555-0100", "specialization", "Cardiology")).get("id").asLong();
+			String path = "/api/appointments/doctor/" + doctorId + "?size=20";
+
+			drive(client, path, token, WARMUP_SECONDS);
+			return drive(client, path, token, SECONDS);
+		}
+	}
+
+	private LatencyStats drive(LoadTestClient client, String path, String token, int seconds) throws Exception {
+		long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+		List<Future<LatencyStats>> clients = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < CLIENTS; c++) {
+				clients.add(executor.submit(() -> {
+					LatencyStats stats = new LatencyStats();
+					while (System.nanoTime() < deadline) {
+						long start = System.nanoTime();
+						boolean error;
+						try {
+							error = client.getStatus(path, token) != 200;
+						} catch (Exception ex) {
+							error = true;
+						}
+						stats.record(System.nanoTime() - start, error);
+					}
+					return stats;
+				}));
+			}
+			LatencyStats all = new LatencyStats();
+			for (Future<LatencyStats> stats : clients) {
+				all.merge(stats.get());
+			}
+			return all;
+		}
+	}
+
+	private void print(String name, LatencyStats stats) {
+		System.out.printf("%-10s %10.0f %10.1f %10.1f %10.1f %8d%n", name, stats.count() / (double) SECONDS,
+				stats.percentileMillis(50), stats.percentileMillis(99), stats.percentileMillis(100), stats.errors());
+	}
+
+	// Delays every connection checkout like a round trip to a remote database would. PriorityOrdered, so it wraps
+	// the pool itself and the delay is spent while holding a permit of the application's connection limiter.
+	@Configuration
+	static class SimulatedDatabaseLatency {
+
+		@Bean
+		static BeanPostProcessor simulatedDatabaseLatency() {
+			return new LatencyPostProcessor(Long.getLong("load.db-latency-ms", 5));
+		}
+	}
+
+	private record LatencyPostProcessor(long latencyMs) implements BeanPostProcessor, PriorityOrdered {
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if (!(bean instanceof DataSource dataSource) || bean instanceof DelegatingDataSource) {
+				return bean;
+			}
+			return new DelegatingDataSource(dataSource) {
+				@Override
+				public Connection getConnection() throws SQLException {
+					try {
+						Thread.sleep(latencyMs);
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+					return super.getConnection();
+				}
+			};
+		}
+
+		@Override
+		public int getOrder() {
+			return Ordered.HIGHEST_PRECEDENCE;
+		}
+	}
+}
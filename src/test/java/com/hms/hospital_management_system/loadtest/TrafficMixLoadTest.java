@@ -0,0 +1,319 @@
+package com.hms.hospital_management_system.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.hospital_management_system.dto.AppointmentRequest;
+import com.hms.hospital_management_system.dto.DoctorRequest;
+import com.hms.hospital_management_system.dto.PatientRequest;
+import com.hms.hospital_management_system.entity.User;
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.entity.enums.Role;
+import com.hms.hospital_management_system.repository.UserRepository;
+import com.hms.hospital_management_system.service.AppointmentService;
+import com.hms.hospital_management_system.service.DoctorService;
+import com.hms.hospital_management_system.service.PatientService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Finds the request rate the application sustains for a realistic mix of logins, searches, bookings and
+ * listings. The application runs on an in-memory H2 database in MySQL mode, seeded through the services (so
+ * the in-memory indexes are warm) with doctors, patients, users and appointments, then many concurrent clients
+ * replay the traffic mix for a fixed time.
+ * <p>
+ * Reports throughput, latency percentiles and errors per operation on the console and as JSON in
+ * {@code target/load-test/traffic-mix.json}. Not part of the default build:
+ * <pre>
+ * mvn test -Pload-test -Dtest=TrafficMixLoadTest -Dload.clients=100 -Dload.seconds=60 -Dload.mix=login:5,search:35,book:10,list:50
+ * </pre>
+ * Seed sizes are set with {@code -Dload.doctors}, {@code -Dload.patients}, {@code -Dload.users} and {@code -Dload.appointments}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:load_mix;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"db.limiter.acquire-timeout-ms=10000"
+})
+class TrafficMixLoadTest {
+
+	private static final int DOCTORS = Integer.getInteger("load.doctors", 200);
+	private static final int PATIENTS = Integer.getInteger("load.patients", 2_000);
+	private static final int USERS = Integer.getInteger("load.users", 100);
+	private static final int APPOINTMENTS = Integer.getInteger("load.appointments", 10_000);
+	private static final int CLIENTS = Integer.getInteger("load.clients", 100);
+	private static final int SECONDS = Integer.getInteger("load.seconds", 30);
+	private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 5);
+	private static final String MIX = System.getProperty("load.mix", "login:5,search:35,book:10,list:50");
+	private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+
+	private static final String PASSWORD = "secret123";
+	private static final String[] FIRST_NAMES = {"Olivia", "Liam", "Emma", "Noah", "Ava", "Elijah", "Sophia", "Mateo",
+			"Isabella", "Lucas", "Mia", "Amelia", "Harper", "Ethan", "Aiden", "Zoe"};
+	private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+			"Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas"};
+	private static final String[] SPECIALIZATIONS = {"Cardiology", "Dermatology", "Neurology", "Pediatrics", "Oncology",
+			"Orthopedics", "Radiology", "Psychiatry"};
+	private static final int[] DURATIONS = {10, 20, 30, 60};
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	@Autowired
+	private PatientService patientService;
+
+	@Autowired
+	private AppointmentService appointmentService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	private final List<Long> doctorIds = new ArrayList<>();
+	private final List<Long> patientIds = new ArrayList<>();
+
+	enum Operation {LOGIN, SEARCH, BOOK, LIST}
+
+	@Test
+	void replayTrafficMix() throws Exception {
+		LoadTestClient client = new LoadTestClient("http://localhost:" + port);
+		long seedStart = System.nanoTime();
+		seed();
+		String token = client.postOk("/api/auth/register", null,
+				Map.of("email", "load-admin@hms.test", "password", PASSWORD, "role", "ADMIN")).get("token").asText();
+		System.out.printf("Seeded %d doctors, %d patients, %d users and %d appointments in %.1f s%n",
+				DOCTORS, PATIENTS, USERS, APPOINTMENTS, (System.nanoTime() - seedStart) / 1e9);
+
+		Map<Operation, Integer> mix = parseMix(MIX);
+		replay(client, token, mix, WARMUP_SECONDS);
+		Report report = replay(client, token, mix, SECONDS);
+
+		report.print();
+		report.write(Path.of("target", "load-test", "traffic-mix.json"));
+		for (Operation operation : mix.keySet()) {
+			LatencyStats stats = report.stats().get(operation);
+			assertThat(stats.count()).as("%s requests", operation).isPositive();
+			assertThat(stats.errors()).as("%s errors", operation).isLessThanOrEqualTo((long) (stats.count() * MAX_ERROR_RATE));
+		}
+	}
+
+	// --- Seeding, through the services so caches and in-memory indexes see the data like in production ---
+
+	private void seed() {
+		for (int i = 0; i < DOCTORS; i++) {
+			doctorIds.add(doctorService.createDoctor(DoctorRequest.builder()
+					.firstName(FIRST_NAMES[i % FIRST_NAMES.length])
+					.lastName(LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length])
+					.email("doctor" + i + "@hms.test")
+					.phone("+1-555-1" + String.format("%05d", i))
+					.specialization(SPECIALIZATIONS[i % SPECIALIZATIONS.length])
+					.build()).getId());
+		}
+		for (int i = 0; i < PATIENTS; i++) {
+			patientIds.add(patientService.createPatient(PatientRequest.builder()
+					.firstName(FIRST_NAMES[(i * 7) % FIRST_NAMES.length])
+					.lastName(LAST_NAMES[(i / 3) % LAST_NAMES.length])
+					.email("patient" + i + "@hms.test")
+					.phone("+1-555-2" + String.format("%05d", i))
+					.dateOfBirth(LocalDate.of(1950, 1, 1).plusDays(i * 11L))
+					.build()).getId());
+		}
+		String encoded = passwordEncoder.encode(PASSWORD); // Hashed once, BCrypt is deliberately slow
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < USERS; i++) {
+			users.add(User.builder().email("user" + i + "@hms.test").password(encoded).role(Role.PATIENT).build());
+		}
+		userRepository.saveAll(users);
+
+		// Eight back-to-back visits per doctor and day from tomorrow on, so bookings during the run hit both free and taken slots
+		LocalDateTime firstDay = LocalDate.now().plusDays(1).atTime(LocalTime.of(9, 0));
+		List<AppointmentRequest> batch = new ArrayList<>();
+		for (int i = 0; i < APPOINTMENTS; i++) {
+			int slot = i / DOCTORS;
+			batch.add(AppointmentRequest.builder()
+					.doctorId(doctorIds.get(i % DOCTORS))
+					.patientId(patientIds.get(i % PATIENTS))
+					.appointmentTime(firstDay.plusDays(slot / 8).plusMinutes(45L * (slot % 8)))
+					.status(AppointmentStatus.SCHEDULED)
+					.build());
+			if (batch.size() == 500 || i == APPOINTMENTS - 1) {
+				appointmentService.scheduleAppointments(batch);
+				batch = new ArrayList<>();
+			}
+		}
+	}
+
+	// --- Replaying the mix ---
+
+	private Report replay(LoadTestClient client, String token, Map<Operation, Integer> mix, int seconds) throws Exception {
+		long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+		AtomicLong rejectedBookings = new AtomicLong();
+		List<Future<Map<Operation, LatencyStats>>> clients = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < CLIENTS; c++) {
+				clients.add(executor.submit(() -> {
+					Map<Operation, LatencyStats> stats = new EnumMap<>(Operation.class);
+					mix.keySet().forEach(operation -> stats.put(operation, new LatencyStats()));
+					while (System.nanoTime() < deadline) {
+						Operation operation = pick(mix);
+						long start = System.nanoTime();
+						boolean error;
+						try {
+							int status = execute(client, token, operation);
+							if (operation == Operation.BOOK && status == 400) {
+								rejectedBookings.incrementAndGet(); // Slot already taken, an expected outcome
+								error = false;
+							} else {
+								error = status / 100 != 2;
+							}
+						} catch (Exception ex) {
+							error = true;
+						}
+						stats.get(operation).record(System.nanoTime() - start, error);
+					}
+					return stats;
+				}));
+			}
+			Map<Operation, LatencyStats> merged = new EnumMap<>(Operation.class);
+			for (Future<Map<Operation, LatencyStats>> stats : clients) {
+				stats.get().forEach((operation, s) -> merged.computeIfAbsent(operation, o -> new LatencyStats()).merge(s));
+			}
+			return new Report(merged, rejectedBookings.get(), seconds);
+		}
+	}
+
+	private int execute(LoadTestClient client, String token, Operation operation) throws Exception {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		return switch (operation) {
+			case LOGIN -> client.post("/api/auth/authenticate", null,
+					Map.of("email", "user" + random.nextInt(USERS) + "@hms.test", "password", PASSWORD)).statusCode();
+			case SEARCH -> {
+				String name = random.nextBoolean()
+						? FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]
+						: LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+				String prefix = name.substring(0, 3 + random.nextInt(name.length() - 2)).toLowerCase();
+				yield client.getStatus((random.nextBoolean() ? "/api/doctors/search" : "/api/patients/search")
+						+ "?query=" + prefix + "&size=20", token);
+			}
+			case BOOK -> {
+				LocalDateTime time = LocalDate.now().plusDays(1 + random.nextInt(60)).atTime(8, 0).plusMinutes(5L * random.nextInt(120));
+				HttpResponse<String> response = client.post("/api/appointments", token, Map.of(
+						"doctorId", randomOf(doctorIds),
+						"patientId", randomOf(patientIds),
+						"appointmentTime", time.toString(),
+						"durationMinutes", DURATIONS[random.nextInt(DURATIONS.length)],
+						"status", "SCHEDULED"));
+				yield response.statusCode();
+			}
+			case LIST -> client.getStatus(random.nextBoolean()
+					? "/api/appointments/doctor/" + randomOf(doctorIds) + "/scroll?size=20"
+					: "/api/appointments/patient/" + randomOf(patientIds) + "?page=0&size=20", token);
+		};
+	}
+
+	private static Long randomOf(List<Long> ids) {
+		return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+	}
+
+	private static Operation pick(Map<Operation, Integer> mix) {
+		int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+		int roll = ThreadLocalRandom.current().nextInt(total);
+		for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+			roll -= entry.getValue();
+			if (roll < 0) {
+				return entry.getKey();
+			}
+		}
+		throw new IllegalStateException("Empty traffic mix");
+	}
+
+	// "login:5,search:35,book:10,list:50", weights are relative
+	static Map<Operation, Integer> parseMix(String mix) {
+		Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+		for (String part : mix.split(",")) {
+			String[] entry = part.trim().split(":");
+			int weight = Integer.parseInt(entry[1].trim());
+			if (weight > 0) {
+				weights.put(Operation.valueOf(entry[0].trim().toUpperCase()), weight);
+			}
+		}
+		if (weights.isEmpty()) {
+			throw new IllegalArgumentException("Traffic mix has no operations: " + mix);
+		}
+		return weights;
+	}
+
+	private record Report(Map<Operation, LatencyStats> stats, long rejectedBookings, int seconds) {
+
+		void print() {
+			System.out.printf("%n%-8s %9s %9s %9s %9s %9s %9s %8s%n",
+					"op", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors");
+			long total = 0;
+			long errors = 0;
+			for (Map.Entry<Operation, LatencyStats> entry : stats.entrySet()) {
+				LatencyStats s = entry.getValue();
+				System.out.printf("%-8s %9d %9.1f %9.1f %9.1f %9.1f %9.1f %8d%n", entry.getKey().name().toLowerCase(),
+						s.count(), s.count() / (double) seconds, s.percentileMillis(50), s.percentileMillis(95),
+						s.percentileMillis(99), s.percentileMillis(100), s.errors());
+				total += s.count();
+				errors += s.errors();
+			}
+			System.out.printf("%-8s %9d %9.1f %49d%n", "total", total, total / (double) seconds, errors);
+			System.out.printf("Bookings rejected because the slot was taken: %d%n", rejectedBookings);
+		}
+
+		void write(Path file) throws Exception {
+			Map<String, Object> operations = new LinkedHashMap<>();
+			stats.forEach((operation, s) -> operations.put(operation.name().toLowerCase(), ordered(
+					"requests", s.count(),
+					"throughput", s.count() / (double) seconds,
+					"p50Ms", s.percentileMillis(50),
+					"p95Ms", s.percentileMillis(95),
+					"p99Ms", s.percentileMillis(99),
+					"maxMs", s.percentileMillis(100),
+					"errors", s.errors())));
+			Map<String, Object> report = ordered(
+					"config", ordered("doctors", DOCTORS, "patients", PATIENTS, "users", USERS, "appointments", APPOINTMENTS,
+							"clients", CLIENTS, "seconds", seconds, "mix", MIX),
+					"operations", operations,
+					"rejectedBookings", rejectedBookings);
+			Files.createDirectories(file.getParent());
+			new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+		}
+
+		// Keys in the given order, so reports of different runs diff cleanly
+		private static Map<String, Object> ordered(Object... keysAndValues) {
+			Map<String, Object> map = new LinkedHashMap<>();
+			for (int i = 0; i < keysAndValues.length; i += 2) {
+				map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+			}
+			return map;
+		}
+	}
+}
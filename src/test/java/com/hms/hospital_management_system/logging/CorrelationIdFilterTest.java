@@ -0,0 +1,43 @@
+package com.hms.hospital_management_system.logging;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorrelationIdFilterTest {
+
+	private final CorrelationIdFilter filter = new CorrelationIdFilter();
+
+	@Test
+	void keepsASafeCallerSuppliedId() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader(CorrelationIdFilter.HEADER, "gateway-7f3a.42");
+
+		assertThat(run(request)).isEqualTo("gateway-7f3a.42");
+	}
+
+	@Test
+	void replacesMissingOrUnsafeIds() throws Exception {
+		MockHttpServletRequest forged = new MockHttpServletRequest();
+		forged.addHeader(CorrelationIdFilter.HEADER, "abc\n2030-01-01 ERROR fake line");
+
+		assertThat(run(new MockHttpServletRequest())).hasSize(36);
+		assertThat(run(forged)).hasSize(36).doesNotContain("fake");
+	}
+
+	// Returns the id seen in the MDC during the request, after checking it was echoed and cleared
+	private String run(MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		AtomicReference<String> seen = new AtomicReference<>();
+		filter.doFilter(request, response, (req, res) -> seen.set(MDC.get(CorrelationIdFilter.MDC_KEY)));
+
+		assertThat(response.getHeader(CorrelationIdFilter.HEADER)).isEqualTo(seen.get());
+		assertThat(MDC.get(CorrelationIdFilter.MDC_KEY)).isNull();
+		return seen.get();
+	}
+}
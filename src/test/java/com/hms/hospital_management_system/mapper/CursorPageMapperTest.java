@@ -0,0 +1,68 @@
+package com.hms.hospital_management_system.mapper;
+
+import com.hms.hospital_management_system.dto.CursorPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPageMapperTest {
+
+	private static final LocalDateTime TIME = LocalDateTime.of(2030, 1, 7, 9, 30);
+
+	private final CursorPageMapper mapper = new CursorPageMapper();
+
+	@Test
+	void nextCursorLeadsBackToTheLastRow() {
+		Window<Long> window = Window.from(List.of(4L, 5L), index -> ScrollPosition.forward(Map.of("appointmentTime", TIME, "id", 4L + index)), true);
+
+		CursorPage<String> page = mapper.toDto(window, String::valueOf);
+		KeysetScrollPosition position = (KeysetScrollPosition) mapper.toScrollPosition(page.getNextCursor(), CursorPageMapper.BY_TIME_AND_ID);
+
+		assertThat(page.getContent()).containsExactly("4", "5");
+		assertThat(page.isHasNext()).isTrue();
+		assertThat(position.getKeys()).containsExactlyInAnyOrderEntriesOf(Map.of("appointmentTime", TIME, "id", 5L));
+	}
+
+	@Test
+	void noCursorStartsAtTheBeginning() {
+		assertThat(mapper.toScrollPosition(null, CursorPageMapper.BY_ID).isInitial()).isTrue();
+		assertThat(mapper.toScrollPosition(" ", CursorPageMapper.BY_ID).isInitial()).isTrue();
+	}
+
+	@Test
+	void rejectsCursorsWithMissingUnknownOrMistypedKeys() {
+		// A patient cursor sent to an appointment endpoint lacks the appointment time
+		assertThatThrownBy(() -> mapper.toScrollPosition(cursor("id:L:5"), CursorPageMapper.BY_TIME_AND_ID))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> mapper.toScrollPosition(cursor("appointmentTime:T:2030-01-07T09:30;id:L:5"), CursorPageMapper.BY_ID))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> mapper.toScrollPosition(cursor("appointmentTime:L:5;id:L:5"), CursorPageMapper.BY_TIME_AND_ID))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> mapper.toScrollPosition(cursor("ssn:L:5"), CursorPageMapper.BY_ID))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void rejectsMalformedCursors() {
+		for (String malformed : new String[] {"not base64!", cursor("id"), cursor("id:X:5"), cursor("id:L:five"),
+				cursor("appointmentTime:T:yesterday;id:L:5")}) {
+			assertThatThrownBy(() -> mapper.toScrollPosition(malformed, CursorPageMapper.BY_TIME_AND_ID))
+					.isInstanceOf(IllegalArgumentException.class)
+					.hasMessageStartingWith("Invalid cursor");
+		}
+	}
+
+	private static String cursor(String keys) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(keys.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,74 @@
+package com.hms.hospital_management_system.metrics;
+
+import com.hms.hospital_management_system.dto.AppointmentRequest;
+import com.hms.hospital_management_system.dto.DoctorRequest;
+import com.hms.hospital_management_system.dto.PatientRequest;
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.service.AppointmentService;
+import com.hms.hospital_management_system.service.DoctorService;
+import com.hms.hospital_management_system.service.PatientService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ServiceMetricsTest {
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private AppointmentService appointmentService;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	@Autowired
+	private PatientService patientService;
+
+	@Test
+	void timesServiceCallsAndCountsBookingConflicts() {
+		Long doctorId = doctorService.createDoctor(DoctorRequest.builder()
+				.firstName("Meera").lastName("Rao").email("meera.rao@metrics.test")
+				.phone("+1-555-300001").specialization("Cardiology").build()).getId();
+		Long patientId = patientService.createPatient(PatientRequest.builder()
+				.firstName("Arun").lastName("Das").email("arun.das@metrics.test")
+				.phone("+1-555-300002").dateOfBirth(LocalDate.of(1980, 5, 1)).build()).getId();
+		LocalDateTime time = LocalDate.now().plusDays(3).atTime(LocalTime.of(10, 0));
+		AppointmentRequest request = AppointmentRequest.builder()
+				.doctorId(doctorId).patientId(patientId).appointmentTime(time)
+				.status(AppointmentStatus.SCHEDULED).build();
+		double conflictsBefore = conflicts("index");
+
+		appointmentService.createAppointment(request);
+		assertThatThrownBy(() -> appointmentService.createAppointment(request))
+				.isInstanceOf(IllegalArgumentException.class);
+
+		assertThat(conflicts("index") - conflictsBefore).isEqualTo(1);
+		assertThat(serviceCalls("createAppointment", "success").count()).isGreaterThanOrEqualTo(1);
+		assertThat(serviceCalls("createAppointment", "rejected").count()).isGreaterThanOrEqualTo(1);
+		assertThat(serviceCalls("createDoctor", "success").totalTime(TimeUnit.NANOSECONDS)).isPositive();
+	}
+
+	private double conflicts(String source) {
+		var counter = meterRegistry.find(ApplicationMetrics.BOOKING_CONFLICTS).tag("source", source).counter();
+		return counter == null ? 0 : counter.count();
+	}
+
+	private Timer serviceCalls(String method, String outcome) {
+		return meterRegistry.get(ServiceMetricsAspect.SERVICE_CALLS)
+				.tag("method", method)
+				.tag("outcome", outcome)
+				.timer();
+	}
+}
@@ -0,0 +1,175 @@
+package com.hms.hospital_management_system.repository;
+
+import com.hms.hospital_management_system.dto.AppointmentResponse;
+import com.hms.hospital_management_system.entity.Appointment;
+import com.hms.hospital_management_system.entity.Doctor;
+import com.hms.hospital_management_system.entity.Patient;
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.mapper.AppointmentMapper;
+import com.hms.hospital_management_system.mapper.DoctorMapper;
+import com.hms.hospital_management_system.mapper.PatientMapper;
+import com.hms.hospital_management_system.repository.projection.AppointmentExportRow;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({AppointmentMapper.class, PatientMapper.class, DoctorMapper.class})
+class AppointmentRepositoryTest {
+
+	private static final int PAGE_SIZE = 100;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private AppointmentMapper appointmentMapper;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private Statistics statistics;
+	private Long doctorId;
+	private Long patientId;
+
+	@BeforeEach
+	void seed() {
+		List<Doctor> doctors = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			Doctor doctor = Doctor.builder().firstName("Doc" + i).lastName("Tor").email("doctor" + i + "@hms.test")
+					.phone("555-000" + i).specialization("Cardiology").build();
+			Patient patient = Patient.builder().firstName("Pat" + i).lastName("Ient").email("patient" + i + "@hms.test")
+					.phone("555-100" + i).dateOfBirth(LocalDate.of(1980, 1, 1).plusDays(i)).build();
+			entityManager.persist(doctor);
+			entityManager.persist(patient);
+			doctors.add(doctor);
+			patients.add(patient);
+		}
+		LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			// Every appointment of the first doctor / first patient, plus a distinct doctor and patient for the rest
+			Doctor doctor = i % 2 == 0 ? doctors.get(0) : doctors.get(i);
+			Patient patient = i % 2 == 0 ? patients.get(0) : patients.get(i);
+			entityManager.persist(Appointment.builder().doctor(doctor).patient(patient)
+					.appointmentTime(start.plusMinutes(30L * i)).status(AppointmentStatus.SCHEDULED).build());
+		}
+		entityManager.flush();
+		entityManager.clear();
+		doctorId = doctors.get(0).getId();
+		patientId = patients.get(0).getId();
+
+		statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void listingAllAppointmentsDoesNotLoadAssociationsOneByOne() {
+		Page<AppointmentResponse> page = appointmentRepository
+				.findAllWithPatientAndDoctor(PageRequest.of(0, PAGE_SIZE, Sort.by("appointmentTime")))
+				.map(appointmentMapper::toDto);
+
+		assertThat(page.getContent()).hasSize(PAGE_SIZE);
+		assertThat(page.getContent()).allSatisfy(appointment -> {
+			assertThat(appointment.getDoctor().getLastName()).isEqualTo("Tor");
+			assertThat(appointment.getPatient().getLastName()).isEqualTo("Ient");
+		});
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	void listingByPatientAndByDoctorDoesNotLoadAssociationsOneByOne() {
+		List<AppointmentResponse> byPatient = appointmentRepository
+				.findWithPatientAndDoctorByPatientId(patientId, PageRequest.of(0, 20))
+				.map(appointmentMapper::toDto).getContent();
+		List<AppointmentResponse> byDoctor = appointmentRepository
+				.findWithPatientAndDoctorByDoctorId(doctorId, PageRequest.of(0, 20))
+				.map(appointmentMapper::toDto).getContent();
+
+		assertThat(byPatient).hasSize(20);
+		assertThat(byDoctor).hasSize(20);
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+	}
+
+	@Test
+	void exportReadsFlatRowsInKeysetChunksWithoutManagingEntities() {
+		List<AppointmentExportRow> first = appointmentRepository.findExportRowsAfter(0L, Limit.of(60));
+		List<AppointmentExportRow> second = appointmentRepository.findExportRowsAfter(first.get(first.size() - 1).id(), Limit.of(60));
+
+		assertThat(first).hasSize(60);
+		assertThat(second).hasSize(PAGE_SIZE - 60);
+		List<AppointmentExportRow> rows = new ArrayList<>(first);
+		rows.addAll(second);
+		assertThat(rows).isSortedAccordingTo((a, b) -> a.id().compareTo(b.id()));
+		assertThat(rows).doesNotHaveDuplicates();
+		assertThat(rows.get(0).patientId()).isEqualTo(patientId);
+		assertThat(rows.get(0).doctorLastName()).isEqualTo("Tor");
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void savingManyAppointmentsBatchesTheInserts() {
+		Doctor doctor = entityManager.find(Doctor.class, doctorId);
+		Patient patient = entityManager.find(Patient.class, patientId);
+		LocalDateTime start = LocalDateTime.of(2031, 1, 1, 9, 0);
+		List<Appointment> appointments = new ArrayList<>();
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			appointments.add(Appointment.builder().doctor(doctor).patient(patient)
+					.appointmentTime(start.plusMinutes(30L * i)).status(AppointmentStatus.SCHEDULED).build());
+		}
+		statistics.clear();
+
+		appointmentRepository.saveAll(appointments);
+		entityManager.flush();
+
+		assertThat(appointments).allSatisfy(appointment -> assertThat(appointment.getId()).isNotNull());
+		// Two insert batches of 50 plus a few pooled sequence calls, instead of one insert per row
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+	}
+
+	@Test
+	void overlapCheckHonoursEachAppointmentsOwnDuration() {
+		Doctor doctor = entityManager.find(Doctor.class, doctorId);
+		Patient patient = entityManager.find(Patient.class, patientId);
+		LocalDateTime hourLong = LocalDateTime.of(2031, 6, 2, 10, 0);
+		Appointment appointment = Appointment.builder().doctor(doctor).patient(patient)
+				.appointmentTime(hourLong).durationMinutes(60).status(AppointmentStatus.SCHEDULED).build();
+		entityManager.persist(appointment);
+		entityManager.flush();
+		statistics.clear();
+
+		assertThat(overlaps(hourLong.plusMinutes(50), 10, null)).isTrue();
+		assertThat(overlaps(hourLong.minusMinutes(10), 20, null)).isTrue();
+		assertThat(overlaps(hourLong.minusMinutes(10), 10, null)).isFalse(); // Ends exactly when the visit starts
+		assertThat(overlaps(hourLong.plusMinutes(60), 20, null)).isFalse(); // Starts exactly when the visit ends
+		assertThat(overlaps(hourLong, 60, appointment.getId())).isFalse(); // An update does not clash with itself
+		// The seeded 30 minute visits of the first doctor
+		assertThat(overlaps(LocalDateTime.of(2030, 1, 1, 9, 20), 10, null)).isTrue();
+		assertThat(overlaps(LocalDateTime.of(2030, 1, 1, 9, 30), 30, null)).isFalse();
+		// One exists probe per check, nothing loaded
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(7);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	private boolean overlaps(LocalDateTime start, int durationMinutes, Long excludedId) {
+		return appointmentRepository.existsOverlapping(doctorId, start.minusMinutes(Appointment.MAX_DURATION_MINUTES),
+				start, start.plusMinutes(durationMinutes), AppointmentStatus.CANCELLED, excludedId);
+	}
+}
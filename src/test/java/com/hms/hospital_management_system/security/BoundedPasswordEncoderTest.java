@@ -0,0 +1,70 @@
+package com.hms.hospital_management_system.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private BoundedPasswordEncoder encoder;
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		encoder.close();
+	}
+
+	@Test
+	void rejectsOnceThePoolAndQueueAreFull() throws Exception {
+		encoder = new BoundedPasswordEncoder(new BlockingEncoder(release), 1, 1);
+		CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+		CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+		while (encoder.pending() < 2) {
+			Thread.onSpinWait();
+		}
+
+		assertThatThrownBy(() -> encoder.encode("c")).isInstanceOf(RejectedExecutionException.class);
+
+		release.countDown();
+		assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:a");
+		assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:b");
+	}
+
+	@Test
+	void asksForAnUpgradeOfHashesBelowTheConfiguredCost() {
+		encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(6), 1, 10);
+		String weak = new BCryptPasswordEncoder(4).encode("secret");
+
+		assertThat(encoder.matches("secret", weak)).isTrue();
+		assertThat(encoder.upgradeEncoding(weak)).isTrue();
+		assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+	}
+
+	private record BlockingEncoder(CountDownLatch release) implements PasswordEncoder {
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "hashed:" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return encode(rawPassword).equals(encodedPassword);
+		}
+	}
+}
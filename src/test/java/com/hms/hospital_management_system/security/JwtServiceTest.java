@@ -0,0 +1,66 @@
+package com.hms.hospital_management_system.security;
+
+import com.hms.hospital_management_system.entity.User;
+import com.hms.hospital_management_system.entity.enums.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+	private static final String SECRET = "yourVeryLongAndSecureJWTSecretKeyThatShouldBeAtLeast256BitsLongAndRandom";
+	private static final String OTHER_SECRET = "anotherVeryLongAndSecureJWTSecretKeyThatShouldBeAtLeast256BitsLongToo";
+	private static final long LIFETIME = 15 * 60 * 1000;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final JwtService jwtService = new JwtService(SECRET, LIFETIME, 100);
+	private final User user = User.builder().id(7L).email("ward.clerk@hms.test").password("unused").role(Role.DOCTOR).build();
+
+	@BeforeEach
+	void bind() {
+		jwtService.bindTo(registry);
+	}
+
+	@Test
+	void verifiesEachTokenOnceWhileItIsCached() {
+		String token = jwtService.generateToken(user);
+
+		Claims first = jwtService.extractAllClaims(token);
+		Claims second = jwtService.extractAllClaims(token);
+
+		assertThat(first.getSubject()).isEqualTo("ward.clerk@hms.test");
+		assertThat(first.get("role", String.class)).isEqualTo("ROLE_DOCTOR");
+		assertThat(second).isSameAs(first);
+		assertThat(jwtService.isTokenValid(token, user)).isTrue();
+		assertThat(verifications()).isEqualTo(1);
+
+		jwtService.extractAllClaims(jwtService.generateToken(user));
+		assertThat(verifications()).isEqualTo(2);
+	}
+
+	@Test
+	void rejectsForgedTokensEveryTimeWithoutCachingThem() {
+		String forged = new JwtService(OTHER_SECRET, LIFETIME, 100).generateToken(user);
+
+		assertThatThrownBy(() -> jwtService.extractAllClaims(forged)).isInstanceOf(SignatureException.class);
+		assertThatThrownBy(() -> jwtService.extractAllClaims(forged)).isInstanceOf(SignatureException.class);
+		assertThat(verifications()).isEqualTo(2);
+	}
+
+	@Test
+	void rejectsExpiredTokens() {
+		String expired = new JwtService(SECRET, -1000, 100).generateToken(user);
+
+		assertThatThrownBy(() -> jwtService.extractAllClaims(expired)).isInstanceOf(ExpiredJwtException.class);
+	}
+
+	private long verifications() {
+		return registry.get("hms.jwt.verification").timer().count();
+	}
+}
@@ -0,0 +1,98 @@
+package com.hms.hospital_management_system.security;
+
+import com.hms.hospital_management_system.entity.TokenRevocation;
+import com.hms.hospital_management_system.entity.User;
+import com.hms.hospital_management_system.entity.enums.RevocationType;
+import com.hms.hospital_management_system.entity.enums.Role;
+import com.hms.hospital_management_system.repository.TokenRevocationRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationRegistryTest {
+
+	private static final long LIFETIME = 15 * 60 * 1000;
+	private static final String SECRET = "yourVeryLongAndSecureJWTSecretKeyThatShouldBeAtLeast256BitsLongAndRandom";
+
+	private final TokenRevocationRepository repository = mock(TokenRevocationRepository.class);
+	private final TokenRevocationRegistry registry = new TokenRevocationRegistry(repository, LIFETIME, 1 << 16);
+
+	@Test
+	void revokesOnlyTheLoggedOutToken() {
+		Claims loggedOut = claims("nurse@hms.test", new Date());
+		Claims otherSession = claims("nurse@hms.test", new Date());
+
+		registry.revokeToken(loggedOut.getId(), loggedOut.getExpiration());
+
+		assertThat(registry.isRevoked(loggedOut)).isTrue();
+		assertThat(registry.isRevoked(otherSession)).isFalse();
+	}
+
+	@Test
+	void revokingAUserRejectsTokensIssuedBefore() {
+		when(repository.findByTypeAndRevokedValue(any(), any())).thenReturn(Optional.empty());
+		Claims before = claims("porter@hms.test", new Date(System.currentTimeMillis() - 60_000));
+
+		registry.revokeAllTokens("porter@hms.test");
+
+		assertThat(registry.isRevoked(before)).isTrue();
+		assertThat(registry.isRevoked(claims("porter@hms.test", new Date(System.currentTimeMillis() + 5_000)))).isFalse();
+		assertThat(registry.isRevoked(claims("doctor@hms.test", before.getIssuedAt()))).isFalse();
+	}
+
+	@Test
+	void aLoginInTheSameSecondAsTheRevocationIsAccepted() throws InterruptedException {
+		when(repository.findByTypeAndRevokedValue(any(), any())).thenReturn(Optional.empty());
+		JwtService jwtService = new JwtService(SECRET, LIFETIME, 100);
+		User user = User.builder().id(3L).email("clerk@hms.test").password("unused").role(Role.PATIENT).build();
+		// Early enough in a second for all of it to happen within that second
+		while (System.currentTimeMillis() % 1000 > 500) {
+			Thread.sleep(10);
+		}
+		long second = System.currentTimeMillis() / 1000;
+		Claims revoked = jwtService.extractAllClaims(jwtService.generateToken(user));
+		Thread.sleep(2);
+
+		registry.revokeAllTokens("clerk@hms.test");
+		Thread.sleep(2);
+		Claims relogin = jwtService.extractAllClaims(jwtService.generateToken(user));
+
+		assertThat(relogin.getIssuedAt()).isEqualTo(revoked.getIssuedAt()).isEqualTo(new Date(second * 1000));
+		assertThat(registry.isRevoked(revoked)).isTrue();
+		assertThat(registry.isRevoked(relogin)).isFalse();
+	}
+
+	@Test
+	void syncLoadsRevocationsFromOtherInstancesAndDropsExpiredOnes() {
+		Claims revokedElsewhere = claims("admin@hms.test", new Date());
+		registry.revokeToken("expired-jti", new Date(System.currentTimeMillis() - 1_000));
+		when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(TokenRevocation.builder()
+				.type(RevocationType.TOKEN)
+				.revokedValue(revokedElsewhere.getId())
+				.expiresAt(LocalDateTime.now().plusMinutes(15))
+				.build()));
+
+		registry.sync();
+
+		assertThat(registry.isRevoked(revokedElsewhere)).isTrue();
+		assertThat(registry.revokedTokenCount()).isEqualTo(1);
+	}
+
+	private static Claims claims(String subject, Date issuedAt) {
+		Claims claims = Jwts.claims().setSubject(subject).setIssuedAt(issuedAt);
+		claims.setId(UUID.randomUUID().toString());
+		claims.setExpiration(new Date(issuedAt.getTime() + LIFETIME));
+		return claims;
+	}
+}
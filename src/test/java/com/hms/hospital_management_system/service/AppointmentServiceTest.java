@@ -0,0 +1,73 @@
+package com.hms.hospital_management_system.service;
+
+import com.hms.hospital_management_system.dto.AppointmentRequest;
+import com.hms.hospital_management_system.dto.AppointmentResponse;
+import com.hms.hospital_management_system.dto.DoctorRequest;
+import com.hms.hospital_management_system.dto.PatientRequest;
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class AppointmentServiceTest {
+
+	@Autowired
+	private AppointmentService appointmentService;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	@Autowired
+	private PatientService patientService;
+
+	private Long doctorId;
+	private Long patientId;
+
+	@BeforeEach
+	void seed() {
+		String key = String.valueOf(System.nanoTime());
+		doctorId = doctorService.createDoctor(DoctorRequest.builder().firstName("Ines").lastName("Costa")
+				.email("doctor" + key + "@service.test").phone("+1-555-" + key.substring(key.length() - 6))
+				.specialization("Orthopedics").build()).getId();
+		patientId = patientService.createPatient(PatientRequest.builder().firstName("Tomas").lastName("Berg")
+				.email("patient" + key + "@service.test").phone("+1-555-" + key.substring(key.length() - 6))
+				.dateOfBirth(LocalDate.of(1975, 3, 9)).build()).getId();
+	}
+
+	@Test
+	void updateWithoutADurationKeepsTheStoredOne() {
+		LocalDateTime time = LocalDate.now().plusDays(50).atTime(9, 0);
+		AppointmentResponse created = appointmentService.createAppointment(request(time, 60).build());
+
+		AppointmentResponse updated = appointmentService.updateAppointment(created.getId(),
+				request(time.plusHours(2), null).notes("Bring X-rays").build(), null);
+
+		assertThat(updated.getDurationMinutes()).isEqualTo(60);
+		assertThat(updated.getEndTime()).isEqualTo(time.plusHours(3));
+		assertThat(updated.getNotes()).isEqualTo("Bring X-rays");
+	}
+
+	@Test
+	void updateWithoutADurationChecksConflictsWithTheStoredOne() {
+		LocalDateTime time = LocalDate.now().plusDays(51).atTime(9, 0);
+		AppointmentResponse created = appointmentService.createAppointment(request(time, 90).build());
+		appointmentService.createAppointment(request(time.plusHours(3), 30).build());
+
+		// Moving the 90 minute visit to 10:45 would run into the 12:00 booking, a 30 minute one would not
+		assertThatThrownBy(() -> appointmentService.updateAppointment(created.getId(), request(time.plusMinutes(105), null).build(), null))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private AppointmentRequest.AppointmentRequestBuilder request(LocalDateTime time, Integer durationMinutes) {
+		return AppointmentRequest.builder().doctorId(doctorId).patientId(patientId).appointmentTime(time)
+				.durationMinutes(durationMinutes).status(AppointmentStatus.SCHEDULED);
+	}
+}
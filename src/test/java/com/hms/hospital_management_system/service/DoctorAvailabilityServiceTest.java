@@ -0,0 +1,67 @@
+package com.hms.hospital_management_system.service;
+
+import com.hms.hospital_management_system.dto.DoctorRequest;
+import com.hms.hospital_management_system.dto.DoctorSlotResponse;
+import com.hms.hospital_management_system.dto.PatientRequest;
+import com.hms.hospital_management_system.dto.WorkingHoursRequest;
+import com.hms.hospital_management_system.entity.Appointment;
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.repository.AppointmentRepository;
+import com.hms.hospital_management_system.repository.DoctorRepository;
+import com.hms.hospital_management_system.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Own database: a context started on the shared one would recreate the schema under the other test contexts
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:doctor_availability_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class DoctorAvailabilityServiceTest {
+
+	@Autowired
+	private DoctorAvailabilityService doctorAvailabilityService;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	@Autowired
+	private PatientService patientService;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@Test
+	void firstAvailableSkipsSlotsTakenSinceTheCalendarWasLoaded() {
+		Long doctorId = doctorService.createDoctor(DoctorRequest.builder().firstName("Lena").lastName("Vogt")
+				.email("doctor@availability.test").phone("+1-555-700001").specialization("Hepatology").build()).getId();
+		Long patientId = patientService.createPatient(PatientRequest.builder().firstName("Omar").lastName("Haddad")
+				.email("patient@availability.test").phone("+1-555-700002").dateOfBirth(LocalDate.of(1982, 6, 1)).build()).getId();
+		doctorAvailabilityService.replaceWorkingHours(doctorId, List.of(WorkingHoursRequest.builder()
+				.dayOfWeek(DayOfWeek.MONDAY).startTime(LocalTime.of(9, 0)).endTime(LocalTime.of(10, 0)).build()));
+		LocalDate monday = LocalDate.now().plusDays(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+		// Written straight to the table, as another instance would: the in-memory calendar does not know about it
+		appointmentRepository.save(Appointment.builder().doctor(doctorRepository.findById(doctorId).orElseThrow())
+				.patient(patientRepository.findById(patientId).orElseThrow()).appointmentTime(monday.atTime(9, 0))
+				.status(AppointmentStatus.SCHEDULED).build());
+
+		List<DoctorSlotResponse> slots = doctorAvailabilityService.findFirstAvailable("Hepatology", monday.atStartOfDay(), 30, 5);
+
+		assertThat(slots).singleElement().satisfies(slot -> {
+			assertThat(slot.getDoctor().getId()).isEqualTo(doctorId);
+			assertThat(slot.getStart()).isEqualTo(monday.atTime(9, 30));
+		});
+	}
+}
@@ -0,0 +1,40 @@
+package com.hms.hospital_management_system.service;
+
+import com.hms.hospital_management_system.dto.DoctorRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class DoctorServiceTest {
+
+	@Autowired
+	private DoctorService doctorService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void aLookupBeforeTheCommitCannotKeepTheOldDoctorCached() {
+		String key = String.valueOf(System.nanoTime());
+		DoctorRequest.DoctorRequestBuilder request = DoctorRequest.builder().firstName("Aiko").lastName("Mori")
+				.email("doctor" + key + "@cache.test").phone("+1-555-" + key.substring(key.length() - 6)).specialization("Dermatology");
+		Long id = doctorService.createDoctor(request.build()).getId();
+		doctorService.getDoctorById(id);
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			doctorService.updateDoctor(id, request.specialization("Rheumatology").build(), null);
+			// Another request looks the doctor up while the change is not committed yet
+			assertThat(CompletableFuture.supplyAsync(() -> doctorService.getDoctorById(id)).join().getSpecialization())
+					.isEqualTo("Dermatology");
+		});
+
+		assertThat(doctorService.getDoctorById(id).getSpecialization()).isEqualTo("Rheumatology");
+	}
+}
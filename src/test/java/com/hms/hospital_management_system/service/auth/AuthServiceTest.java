@@ -0,0 +1,138 @@
+package com.hms.hospital_management_system.service.auth;
+
+import com.hms.hospital_management_system.dto.AuthRequest;
+import com.hms.hospital_management_system.dto.AuthResponse;
+import com.hms.hospital_management_system.dto.RefreshTokenRequest;
+import com.hms.hospital_management_system.dto.RevokeTokensRequest;
+import com.hms.hospital_management_system.entity.User;
+import com.hms.hospital_management_system.entity.enums.RevocationType;
+import com.hms.hospital_management_system.entity.enums.Role;
+import com.hms.hospital_management_system.repository.TokenRevocationRepository;
+import com.hms.hospital_management_system.repository.UserRepository;
+import com.hms.hospital_management_system.security.JwtService;
+import com.hms.hospital_management_system.security.TokenRevocationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class AuthServiceTest {
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private TokenRevocationRegistry tokenRevocationRegistry;
+
+	@Autowired
+	private TokenRevocationRepository tokenRevocationRepository;
+
+	@Test
+	void loginRehashesPasswordsStoredWithALowerCost() {
+		userRepository.save(User.builder().email("nurse@auth.test").role(Role.PATIENT)
+				.password(new BCryptPasswordEncoder(4).encode("night-shift")).build());
+
+		String token = authService.authenticate(AuthRequest.builder().email("nurse@auth.test").password("night-shift").build())
+				.getToken();
+
+		assertThat(jwtService.extractUsername(token)).isEqualTo("nurse@auth.test");
+		String rehashed = userRepository.findByEmail("nurse@auth.test").orElseThrow().getPassword();
+		assertThat(rehashed).startsWith("$2a$10$");
+		// The new hash keeps working and does not ask for another upgrade
+		authService.authenticate(AuthRequest.builder().email("nurse@auth.test").password("night-shift").build());
+		assertThat(userRepository.findByEmail("nurse@auth.test").orElseThrow().getPassword()).isEqualTo(rehashed);
+	}
+
+	@Test
+	void wrongPasswordsAreStillRejected() {
+		userRepository.save(User.builder().email("porter@auth.test").role(Role.PATIENT)
+				.password(new BCryptPasswordEncoder(4).encode("right")).build());
+
+		assertThatThrownBy(() -> authService.authenticate(AuthRequest.builder().email("porter@auth.test").password("wrong").build()))
+				.isInstanceOf(BadCredentialsException.class);
+	}
+
+	@Test
+	void refreshRotatesTheTokenAndRevokesTheFamilyWhenAUsedTokenComesBack() {
+		AuthResponse login = login("clerk@auth.test");
+
+		AuthResponse refreshed = authService.refresh(new RefreshTokenRequest(login.getRefreshToken()));
+
+		assertThat(refreshed.getRefreshToken()).isNotEqualTo(login.getRefreshToken());
+		assertThat(jwtService.extractUsername(refreshed.getToken())).isEqualTo("clerk@auth.test");
+		// Replaying the first token looks like theft: it fails and takes the rotated token down with it
+		assertThatThrownBy(() -> authService.refresh(new RefreshTokenRequest(login.getRefreshToken())))
+				.isInstanceOf(BadCredentialsException.class);
+		assertThatThrownBy(() -> authService.refresh(new RefreshTokenRequest(refreshed.getRefreshToken())))
+				.isInstanceOf(BadCredentialsException.class);
+	}
+
+	@Test
+	void logoutRevokesTheAccessAndRefreshTokens() {
+		AuthResponse session = login("cashier@auth.test");
+		AuthResponse otherDevice = login("cashier@auth.test");
+
+		authService.logout(new RefreshTokenRequest(session.getRefreshToken()), session.getToken());
+
+		assertThat(tokenRevocationRegistry.isRevoked(jwtService.extractAllClaims(session.getToken()))).isTrue();
+		assertThat(tokenRevocationRegistry.isRevoked(jwtService.extractAllClaims(otherDevice.getToken()))).isFalse();
+		assertThatThrownBy(() -> authService.refresh(new RefreshTokenRequest(session.getRefreshToken())))
+				.isInstanceOf(BadCredentialsException.class);
+		assertThat(authService.refresh(new RefreshTokenRequest(otherDevice.getRefreshToken())).getToken()).isNotBlank();
+	}
+
+	@Test
+	void loggingOutTwiceWithTheSameTokensIsHarmless() {
+		AuthResponse session = login("registrar@auth.test");
+		RefreshTokenRequest request = new RefreshTokenRequest(session.getRefreshToken());
+
+		authService.logout(request, session.getToken());
+		// A client retrying after a lost response sends the same request again
+		authService.logout(request, session.getToken());
+
+		assertThat(tokenRevocationRegistry.isRevoked(jwtService.extractAllClaims(session.getToken()))).isTrue();
+		assertThat(tokenRevocationRepository.findAll().stream()
+				.filter(revocation -> revocation.getRevokedValue().equals(jwtService.extractAllClaims(session.getToken()).getId())))
+				.hasSize(1);
+	}
+
+	@Test
+	void revokingAUserTwiceKeepsASingleRevocation() {
+		login("archivist@auth.test");
+
+		authService.revokeTokens(new RevokeTokensRequest("archivist@auth.test"));
+		authService.revokeTokens(new RevokeTokensRequest("archivist@auth.test"));
+
+		assertThat(tokenRevocationRepository.findByTypeAndRevokedValue(RevocationType.USER, "archivist@auth.test")).isPresent();
+	}
+
+	@Test
+	void loggingInRightAfterARevocationGivesAWorkingToken() {
+		AuthResponse revoked = login("courier@auth.test");
+
+		authService.revokeTokens(new RevokeTokensRequest("courier@auth.test"));
+		AuthResponse relogin = login("courier@auth.test");
+
+		assertThat(tokenRevocationRegistry.isRevoked(jwtService.extractAllClaims(revoked.getToken()))).isTrue();
+		assertThat(tokenRevocationRegistry.isRevoked(jwtService.extractAllClaims(relogin.getToken()))).isFalse();
+	}
+
+	private AuthResponse login(String email) {
+		if (userRepository.findByEmail(email).isEmpty()) {
+			userRepository.save(User.builder().email(email).role(Role.PATIENT)
+					.password(new BCryptPasswordEncoder(10).encode("secret")).build());
+		}
+		return authService.authenticate(AuthRequest.builder().email(email).password("secret").build());
+	}
+}
@@ -0,0 +1,82 @@
+package com.hms.hospital_management_system.service.booking;
+
+import com.hms.hospital_management_system.entity.WorkingHours;
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.repository.AppointmentRepository;
+import com.hms.hospital_management_system.repository.WorkingHoursRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AvailabilityCalendarTest {
+
+	private static final Long DOCTOR = 1L;
+	private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+	private final WorkingHoursRepository workingHoursRepository = mock(WorkingHoursRepository.class);
+	private final DoctorScheduleIndex index = new DoctorScheduleIndex(mock(AppointmentRepository.class));
+	private final AvailabilityCalendar calendar = new AvailabilityCalendar(workingHoursRepository, index);
+
+	@BeforeEach
+	void mondayMorningsAndWednesdayAfternoons() {
+		when(workingHoursRepository.findByDoctorIdOrderByDayOfWeekAscStartTimeAsc(DOCTOR)).thenReturn(List.of(
+				hours(DayOfWeek.MONDAY, "09:00", "12:00"),
+				hours(DayOfWeek.WEDNESDAY, "14:00", "15:00")));
+	}
+
+	@Test
+	void slotsFillTheFreeStretchesBetweenBookings() {
+		index.put(10L, DOCTOR, MONDAY.atTime(10, 10), MONDAY.atTime(10, 10).plusMinutes(30), AppointmentStatus.SCHEDULED);
+		index.put(11L, DOCTOR, MONDAY.atTime(11, 0), MONDAY.atTime(11, 0).plusMinutes(30), AppointmentStatus.CANCELLED); // Does not block anything
+
+		assertThat(starts(calendar.freeSlots(DOCTOR, MONDAY.atStartOfDay(), MONDAY.plusDays(1).atStartOfDay(), 30)))
+				.containsExactly(MONDAY.atTime(9, 0), MONDAY.atTime(9, 30), MONDAY.atTime(10, 40), MONDAY.atTime(11, 10));
+	}
+
+	@Test
+	void rangeBoundsAreRespected() {
+		assertThat(starts(calendar.freeSlots(DOCTOR, MONDAY.atTime(9, 50), MONDAY.atTime(11, 0), 30)))
+				.containsExactly(MONDAY.atTime(9, 50), MONDAY.atTime(10, 20));
+	}
+
+	@Test
+	void firstFreeSlotSkipsFullAndNonWorkingDays() {
+		index.put(20L, DOCTOR, MONDAY.atTime(9, 0), MONDAY.atTime(9, 0).plusMinutes(30), AppointmentStatus.SCHEDULED);
+		index.put(21L, DOCTOR, MONDAY.atTime(9, 30), MONDAY.atTime(9, 30).plusMinutes(30), AppointmentStatus.SCHEDULED);
+		index.put(22L, DOCTOR, MONDAY.atTime(10, 0), MONDAY.atTime(10, 0).plusMinutes(30), AppointmentStatus.SCHEDULED);
+		index.put(23L, DOCTOR, MONDAY.atTime(10, 30), MONDAY.atTime(10, 30).plusMinutes(30), AppointmentStatus.SCHEDULED);
+		index.put(24L, DOCTOR, MONDAY.atTime(11, 0), MONDAY.atTime(11, 0).plusMinutes(30), AppointmentStatus.SCHEDULED);
+		index.put(25L, DOCTOR, MONDAY.atTime(11, 30), MONDAY.atTime(11, 30).plusMinutes(30), AppointmentStatus.SCHEDULED);
+
+		assertThat(calendar.firstFreeSlot(DOCTOR, MONDAY.atStartOfDay(), MONDAY.plusDays(7).atStartOfDay(), 30))
+				.hasValue(new TimeSlot(MONDAY.plusDays(2).atTime(14, 0), MONDAY.plusDays(2).atTime(14, 30)));
+	}
+
+	@Test
+	void changedWorkingHoursApplyAfterEviction() {
+		calendar.freeSlots(DOCTOR, MONDAY.atStartOfDay(), MONDAY.plusDays(1).atStartOfDay(), 30);
+		when(workingHoursRepository.findByDoctorIdOrderByDayOfWeekAscStartTimeAsc(DOCTOR)).thenReturn(List.of(
+				hours(DayOfWeek.MONDAY, "17:00", "17:30")));
+		calendar.evict(DOCTOR);
+
+		assertThat(starts(calendar.freeSlots(DOCTOR, MONDAY.atStartOfDay(), MONDAY.plusDays(1).atStartOfDay(), 30)))
+				.containsExactly(MONDAY.atTime(17, 0));
+	}
+
+	private static List<LocalDateTime> starts(List<TimeSlot> slots) {
+		return slots.stream().map(TimeSlot::start).toList();
+	}
+
+	private static WorkingHours hours(DayOfWeek day, String start, String end) {
+		return WorkingHours.builder().dayOfWeek(day).startTime(LocalTime.parse(start)).endTime(LocalTime.parse(end)).build();
+	}
+}
@@ -0,0 +1,132 @@
+package com.hms.hospital_management_system.service.booking;
+
+import com.hms.hospital_management_system.dto.AppointmentRequest;
+import com.hms.hospital_management_system.dto.DoctorRequest;
+import com.hms.hospital_management_system.dto.PatientRequest;
+import com.hms.hospital_management_system.entity.Appointment;
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.repository.AppointmentRepository;
+import com.hms.hospital_management_system.service.AppointmentService;
+import com.hms.hospital_management_system.service.DoctorService;
+import com.hms.hospital_management_system.service.PatientService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives {@link AppointmentService#createAppointment} (lock, check, insert, index on commit, unlock) from many threads
+ * at once, on purpose aiming them at a handful of doctors and overlapping times, then checks the stored schedules.
+ */
+@SpringBootTest
+class BookingLockManagerStressTest {
+
+	private static final int THREADS = 16;
+	private static final int ATTEMPTS_PER_THREAD = 40;
+	private static final int DOCTORS = 3;
+	private static final int[] DURATIONS = {10, 20, 30, 60, 90};
+
+	@Autowired
+	private AppointmentService appointmentService;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	@Autowired
+	private PatientService patientService;
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+
+	@Autowired
+	private BookingLockManager lockManager;
+
+	@Test
+	void concurrentBookingsNeverDoubleBookADoctor() throws Exception {
+		List<Long> doctorIds = new ArrayList<>();
+		for (int d = 0; d < DOCTORS; d++) {
+			doctorIds.add(doctorService.createDoctor(DoctorRequest.builder().firstName("Stress" + d).lastName("Doctor")
+					.email("doctor" + d + "@stress.test").phone("+1-555-90000" + d).specialization("Radiology").build()).getId());
+		}
+		Long patientId = patientService.createPatient(PatientRequest.builder().firstName("Stress").lastName("Patient")
+				.email("patient@stress.test").phone("+1-555-900100").dateOfBirth(LocalDate.of(1970, 6, 1)).build()).getId();
+		LocalDateTime dayStart = LocalDate.now().plusDays(40).atTime(8, 0);
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger booked = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		List<Future<?>> workers = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			workers.add(pool.submit(() -> {
+				start.await();
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+					// 5 minute grid over a four hour morning with mixed visit lengths, so most attempts overlap an
+					// existing or in-flight booking
+					AppointmentRequest request = AppointmentRequest.builder()
+							.doctorId(doctorIds.get(random.nextInt(DOCTORS))).patientId(patientId)
+							.appointmentTime(dayStart.plusMinutes(5L * random.nextInt(48)))
+							.durationMinutes(DURATIONS[random.nextInt(DURATIONS.length)])
+							.status(AppointmentStatus.SCHEDULED).build();
+					try {
+						appointmentService.createAppointment(request);
+						booked.incrementAndGet();
+					} catch (IllegalArgumentException ex) {
+						rejected.incrementAndGet(); // Slot taken
+					}
+				}
+				return null;
+			}));
+		}
+
+		start.countDown();
+		for (Future<?> worker : workers) {
+			worker.get(120, TimeUnit.SECONDS);
+		}
+		pool.shutdown();
+
+		for (Long doctorId : doctorIds) {
+			List<Appointment> schedule = new ArrayList<>(appointmentRepository.findByDoctorId(doctorId, Pageable.unpaged()).getContent());
+			schedule.sort(Comparator.comparing(Appointment::getAppointmentTime));
+			LocalDateTime busyUntil = LocalDateTime.MIN;
+			for (Appointment appointment : schedule) {
+				assertThat(appointment.getAppointmentTime())
+						.as("doctor %d double-booked at %s", doctorId, appointment.getAppointmentTime())
+						.isAfterOrEqualTo(busyUntil);
+				busyUntil = appointment.getEndTime();
+			}
+		}
+
+		assertThat(booked.get()).isPositive();
+		assertThat(rejected.get()).isPositive();
+		assertThat(booked.get() + rejected.get()).isEqualTo(THREADS * ATTEMPTS_PER_THREAD);
+		assertThat(lockManager.activeLocks()).isZero();
+	}
+
+	@Test
+	void differentDoctorsNeverContend() throws Exception {
+		LocalDateTime time = LocalDate.now().plusDays(41).atTime(9, 0);
+		try (BookingLockManager.Hold ignored = lockManager.lock(1L, time, time.plusMinutes(30))) {
+			ExecutorService other = Executors.newSingleThreadExecutor();
+			Future<?> otherDoctor = other.submit(() -> lockManager.lock(2L, time, time.plusMinutes(30)).close());
+			otherDoctor.get(1, TimeUnit.SECONDS);
+			other.shutdown();
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.hms.hospital_management_system.service.booking;
+
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.repository.AppointmentRepository;
+import com.hms.hospital_management_system.repository.projection.BookedSlot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DoctorScheduleIndexTest {
+
+	private static final Long DOCTOR = 1L;
+	private static final LocalDateTime NINE = LocalDate.now().plusDays(10).atTime(9, 0);
+
+	private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+	private final DoctorScheduleIndex index = new DoctorScheduleIndex(appointmentRepository);
+
+	@Test
+	void reloadDropsBookingsCancelledElsewhereAndPicksUpNewOnes() {
+		index.put(10L, DOCTOR, NINE, NINE.plusMinutes(30), AppointmentStatus.SCHEDULED);
+		// Another instance cancelled 10 and booked 11 at 10:00
+		List<BookedSlot> committed = List.of(slot(11L, NINE.plusHours(1)));
+		when(appointmentRepository.findBookedSlotsFrom(any(), any())).thenReturn(committed);
+
+		index.reload();
+
+		assertThat(index.isBooked(DOCTOR, NINE, NINE.plusMinutes(30))).isFalse();
+		assertThat(index.isBooked(DOCTOR, NINE.plusHours(1), NINE.plusHours(1).plusMinutes(30))).isTrue();
+	}
+
+	@Test
+	void changesCommittedDuringAReloadAreKept() {
+		index.put(20L, DOCTOR, NINE, NINE.plusMinutes(30), AppointmentStatus.SCHEDULED);
+		// The rows read still have 20 at 9:00; meanwhile it is moved to 11:00 and 21 is booked at 12:00 on this instance
+		List<BookedSlot> committed = List.of(slot(20L, NINE));
+		when(appointmentRepository.findBookedSlotsFrom(any(), any())).thenAnswer(invocation -> {
+			index.put(20L, DOCTOR, NINE.plusHours(2), NINE.plusHours(2).plusMinutes(30), AppointmentStatus.RESCHEDULED);
+			index.put(21L, DOCTOR, NINE.plusHours(3), NINE.plusHours(3).plusMinutes(30), AppointmentStatus.SCHEDULED);
+			return committed;
+		});
+
+		index.reload();
+
+		assertThat(index.isBooked(DOCTOR, NINE, NINE.plusMinutes(30))).isFalse();
+		assertThat(index.isBooked(DOCTOR, NINE.plusHours(2), NINE.plusHours(2).plusMinutes(30))).isTrue();
+		assertThat(index.isBooked(DOCTOR, NINE.plusHours(3), NINE.plusHours(3).plusMinutes(30))).isTrue();
+	}
+
+	private static BookedSlot slot(Long id, LocalDateTime start) {
+		BookedSlot slot = mock(BookedSlot.class);
+		when(slot.getId()).thenReturn(id);
+		when(slot.getDoctorId()).thenReturn(DOCTOR);
+		when(slot.getAppointmentTime()).thenReturn(start);
+		when(slot.getEndTime()).thenReturn(start.plusMinutes(30));
+		when(slot.getStatus()).thenReturn(AppointmentStatus.SCHEDULED);
+		return slot;
+	}
+}
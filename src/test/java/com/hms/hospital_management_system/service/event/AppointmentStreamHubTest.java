@@ -0,0 +1,165 @@
+package com.hms.hospital_management_system.service.event;
+
+import com.hms.hospital_management_system.config.ConcurrencyLimitingDataSource;
+import com.hms.hospital_management_system.dto.AppointmentRequest;
+import com.hms.hospital_management_system.dto.DoctorRequest;
+import com.hms.hospital_management_system.dto.PatientRequest;
+import com.hms.hospital_management_system.entity.User;
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.entity.enums.Role;
+import com.hms.hospital_management_system.repository.UserRepository;
+import com.hms.hospital_management_system.security.JwtService;
+import com.hms.hospital_management_system.service.AppointmentService;
+import com.hms.hospital_management_system.service.DoctorService;
+import com.hms.hospital_management_system.service.PatientService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AppointmentStreamHubTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private AppointmentService appointmentService;
+
+	@Autowired
+	private DoctorService doctorService;
+
+	@Autowired
+	private PatientService patientService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private AppointmentStreamHub appointmentStreamHub;
+
+	@Autowired
+	private ConcurrencyLimitingDataSource dataSource;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@Test
+	void pushesChangesOfTheDoctorsScheduleAndResumesAfterReconnecting() throws Exception {
+		String token = jwtService.generateToken(userRepository.save(User.builder()
+				.email("desk@stream.test").password("unused").role(Role.ADMIN).build()));
+		Long doctorId = doctorService.createDoctor(DoctorRequest.builder()
+				.firstName("Lena").lastName("Park").email("lena.park@stream.test")
+				.phone("+1-555-500001").specialization("Dermatology").build()).getId();
+		Long otherDoctorId = doctorService.createDoctor(DoctorRequest.builder()
+				.firstName("Omar").lastName("Haddad").email("omar.haddad@stream.test")
+				.phone("+1-555-500002").specialization("Dermatology").build()).getId();
+		Long patientId = patientService.createPatient(PatientRequest.builder()
+				.firstName("Ines").lastName("Costa").email("ines.costa@stream.test")
+				.phone("+1-555-500003").dateOfBirth(LocalDate.of(1975, 3, 9)).build()).getId();
+		LocalDateTime time = LocalDate.now().plusDays(4).atTime(LocalTime.of(11, 0));
+
+		BlockingQueue<String> lines = open(token, doctorId, null);
+		appointmentService.createAppointment(AppointmentRequest.builder().doctorId(otherDoctorId).patientId(patientId)
+				.appointmentTime(time).status(AppointmentStatus.SCHEDULED).build());
+		Long appointmentId = appointmentService.createAppointment(AppointmentRequest.builder().doctorId(doctorId)
+				.patientId(patientId).appointmentTime(time).status(AppointmentStatus.SCHEDULED).build()).getId();
+
+		Map<String, String> created = nextEvent(lines);
+		assertThat(created.get("event")).isEqualTo("CREATED");
+		assertThat(created.get("data")).contains("\"appointmentId\":" + appointmentId).contains("\"doctorId\":" + doctorId);
+
+		// Moved to another doctor: the old doctor's stream hears about it, a client reconnecting there catches up
+		appointmentService.updateAppointment(appointmentId, AppointmentRequest.builder().doctorId(otherDoctorId)
+				.patientId(patientId).appointmentTime(time.plusHours(1)).status(AppointmentStatus.SCHEDULED).build(), null);
+		assertThat(nextEvent(lines).get("event")).isEqualTo("RESCHEDULED");
+		BlockingQueue<String> resumed = open(token, doctorId, Long.valueOf(created.get("id")));
+		assertThat(nextEvent(resumed).get("event")).isEqualTo("RESCHEDULED");
+
+		// Sequences from before a restart (or evicted from the log) cannot be replayed, the client is told to reload
+		BlockingQueue<String> unknown = open(token, doctorId, Long.MAX_VALUE);
+		assertThat(nextEvent(unknown).get("event")).isEqualTo(AppointmentStreamHub.RESET_EVENT);
+		assertThat(appointmentStreamHub.subscriberCount()).isGreaterThanOrEqualTo(3);
+	}
+
+	@Test
+	void openStreamsDoNotHoldDatabaseConnections() throws Exception {
+		String token = jwtService.generateToken(userRepository.save(User.builder()
+				.email("wallboard@stream.test").password("unused").role(Role.ADMIN).build()));
+		List<HttpResponse<Stream<String>>> streams = new ArrayList<>();
+		try {
+			// More streams than permits, each looking up a doctor missing from the cache
+			for (int i = 0; i <= dataSource.maxConcurrent(); i++) {
+				Long doctorId = doctorService.createDoctor(DoctorRequest.builder().firstName("Wall" + i).lastName("Board")
+						.email("wall" + i + "@stream.test").phone("+1-555-51000" + i).specialization("Radiology").build()).getId();
+				streams.add(client.send(streamRequest(token, doctorId).build(), HttpResponse.BodyHandlers.ofLines()));
+				assertThat(streams.get(i).statusCode()).isEqualTo(200);
+			}
+
+			HttpResponse<String> listing = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/doctors?size=1"))
+					.header("Authorization", "Bearer " + token).build(), HttpResponse.BodyHandlers.ofString());
+			assertThat(listing.statusCode()).isEqualTo(200);
+			assertThat(dataSource.inUse()).isLessThan(dataSource.maxConcurrent());
+		} finally {
+			streams.forEach(stream -> stream.body().close());
+		}
+	}
+
+	private HttpRequest.Builder streamRequest(String token, Long doctorId) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/appointments/stream?doctorId=" + doctorId))
+				.header("Authorization", "Bearer " + token)
+				.header("Accept", "text/event-stream");
+	}
+
+	private BlockingQueue<String> open(String token, Long doctorId, Long lastEventId) throws Exception {
+		HttpRequest.Builder request = streamRequest(token, doctorId);
+		if (lastEventId != null) {
+			request.header("Last-Event-ID", String.valueOf(lastEventId));
+		}
+		HttpResponse<Stream<String>> response = client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+		assertThat(response.statusCode()).isEqualTo(200);
+		BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+		Thread.ofVirtual().start(() -> {
+			for (Iterator<String> it = response.body().iterator(); it.hasNext(); ) {
+				lines.add(it.next());
+			}
+		});
+		return lines;
+	}
+
+	// Fields of the next event, heartbeats and other comments skipped
+	private static Map<String, String> nextEvent(BlockingQueue<String> lines) throws InterruptedException {
+		Map<String, String> fields = new HashMap<>();
+		for (String line; (line = lines.poll(5, TimeUnit.SECONDS)) != null; ) {
+			if (line.isEmpty() && !fields.isEmpty()) {
+				return fields;
+			}
+			int colon = line.indexOf(':');
+			if (colon > 0) {
+				fields.put(line.substring(0, colon), line.substring(colon + 1));
+			}
+		}
+		throw new AssertionError("No event received");
+	}
+}
@@ -0,0 +1,129 @@
+package com.hms.hospital_management_system.service.readmodel;
+
+import com.hms.hospital_management_system.entity.enums.AppointmentStatus;
+import com.hms.hospital_management_system.repository.AppointmentRepository;
+import com.hms.hospital_management_system.repository.projection.AppointmentSnapshot;
+import com.hms.hospital_management_system.service.event.AppointmentEventLog;
+import com.hms.hospital_management_system.service.event.AppointmentEventType;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AppointmentReadModelTest {
+
+	private static final LocalDateTime MONDAY = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+	private final AppointmentRepository repository = mock(AppointmentRepository.class);
+	private final AppointmentEventLog eventLog = new AppointmentEventLog(100);
+	private final AppointmentReadModel model = new AppointmentReadModel(repository, eventLog, mock(PlatformTransactionManager.class), 5);
+
+	@Test
+	void startsFromTheDatabaseAndFollowsTheEventLog() {
+		when(repository.findSnapshotsAfter(any(), any())).thenReturn(List.of(row(1L, 10L, 1L, 2), row(2L, 10L, 2L, 0)));
+		model.afterSingletonsInstantiated();
+
+		eventLog.append(AppointmentEventType.CREATED, 3L, row(3L, 10L, 1L, 1), null);
+
+		assertThat(ids(model.findByDoctor(10L, Pageable.unpaged()).orElseThrow())).containsExactly(2L, 3L, 1L);
+		assertThat(ids(model.findByPatient(1L, Pageable.unpaged()).orElseThrow())).containsExactly(3L, 1L);
+	}
+
+	@Test
+	void reschedulingToAnotherDoctorMovesTheAppointment() {
+		when(repository.findSnapshotsAfter(any(), any())).thenReturn(List.of(row(1L, 10L, 1L, 0), row(2L, 10L, 1L, 1)));
+		model.afterSingletonsInstantiated();
+
+		eventLog.append(AppointmentEventType.RESCHEDULED, 1L, row(1L, 20L, 1L, 3), row(1L, 10L, 1L, 0));
+		eventLog.append(AppointmentEventType.DELETED, 2L, null, row(2L, 10L, 1L, 1));
+
+		assertThat(model.findByDoctor(10L, Pageable.unpaged()).orElseThrow()).isEmpty();
+		assertThat(ids(model.findByDoctor(20L, Pageable.unpaged()).orElseThrow())).containsExactly(1L);
+		assertThat(ids(model.findByPatient(1L, Pageable.unpaged()).orElseThrow())).containsExactly(1L);
+	}
+
+	@Test
+	void pagesInBothDirections() {
+		when(repository.findSnapshotsAfter(any(), any())).thenReturn(List.of(
+				row(1L, 10L, 1L, 0), row(2L, 10L, 2L, 1), row(3L, 10L, 3L, 2), row(4L, 10L, 4L, 3), row(5L, 10L, 5L, 4)));
+		model.afterSingletonsInstantiated();
+
+		Page<AppointmentSnapshot> ascending = model.findByDoctor(10L, PageRequest.of(1, 2)).orElseThrow();
+		Page<AppointmentSnapshot> descending = model.findByDoctor(10L, PageRequest.of(2, 2, Sort.by("appointmentTime").descending())).orElseThrow();
+
+		assertThat(ids(ascending)).containsExactly(3L, 4L);
+		assertThat(ascending.getTotalElements()).isEqualTo(5);
+		assertThat(ids(descending)).containsExactly(1L);
+		assertThat(model.findByDoctor(10L, PageRequest.of(0, 2, Sort.by("status")))).isEmpty();
+	}
+
+	@Test
+	void reloadPicksUpChangesCommittedByOtherInstances() {
+		when(repository.findSnapshotsAfter(any(), any()))
+				.thenReturn(List.of(row(1L, 10L, 1L, 0)))
+				// Another instance booked appointment 2 and deleted appointment 1, this one only sees it in the database
+				.thenReturn(List.of(row(2L, 10L, 2L, 1)));
+		model.afterSingletonsInstantiated();
+		assertThat(ids(model.findByDoctor(10L, Pageable.unpaged()).orElseThrow())).containsExactly(1L);
+
+		model.reload();
+
+		assertThat(ids(model.findByDoctor(10L, Pageable.unpaged()).orElseThrow())).containsExactly(2L);
+		assertThat(model.findByPatient(1L, Pageable.unpaged()).orElseThrow()).isEmpty();
+	}
+
+	@Test
+	void switchesOffBeyondItsSizeLimitUntilAReloadFitsAgain() {
+		when(repository.findSnapshotsAfter(any(), any()))
+				.thenReturn(List.of(row(1L, 10L, 1L, 0), row(2L, 10L, 1L, 1), row(3L, 10L, 1L, 2), row(4L, 10L, 1L, 3), row(5L, 10L, 1L, 4)))
+				.thenReturn(List.of(row(1L, 10L, 1L, 0)));
+		model.afterSingletonsInstantiated();
+		assertThat(model.findByDoctor(10L, Pageable.unpaged())).isPresent();
+
+		eventLog.append(AppointmentEventType.CREATED, 6L, row(6L, 10L, 1L, 5), null);
+		assertThat(model.findByDoctor(10L, Pageable.unpaged())).isEmpty();
+		eventLog.append(AppointmentEventType.CREATED, 7L, row(7L, 10L, 1L, 6), null);
+		assertThat(model.findByDoctor(10L, Pageable.unpaged())).isEmpty();
+
+		model.reload();
+		assertThat(ids(model.findByDoctor(10L, Pageable.unpaged()).orElseThrow())).containsExactly(1L);
+	}
+
+	@Test
+	void staysOffForACycleWhenTheEventLogOverflowsDuringAReload() {
+		when(repository.findSnapshotsAfter(any(), any()))
+				.thenAnswer(invocation -> {
+					// A burst of local changes while the rows are read, more than the log retains
+					for (long id = 100; id <= 200; id++) {
+						eventLog.append(AppointmentEventType.DELETED, id, null, row(id, 10L, 1L, 0));
+					}
+					return List.of(row(1L, 10L, 1L, 0));
+				})
+				.thenReturn(List.of(row(1L, 10L, 1L, 0)));
+
+		model.afterSingletonsInstantiated();
+		assertThat(model.findByDoctor(10L, Pageable.unpaged())).isEmpty();
+
+		model.reload();
+		assertThat(ids(model.findByDoctor(10L, Pageable.unpaged()).orElseThrow())).containsExactly(1L);
+	}
+
+	private static AppointmentSnapshot row(Long id, Long doctorId, Long patientId, int hoursAfterNine) {
+		LocalDateTime time = MONDAY.plusHours(hoursAfterNine);
+		return new AppointmentSnapshot(id, patientId, doctorId, time, 30, time.plusMinutes(30), AppointmentStatus.SCHEDULED, null, 0L);
+	}
+
+	private static Long[] ids(Page<AppointmentSnapshot> page) {
+		return page.stream().map(AppointmentSnapshot::id).toArray(Long[]::new);
+	}
+}
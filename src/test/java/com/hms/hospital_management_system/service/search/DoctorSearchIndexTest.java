@@ -0,0 +1,83 @@
+package com.hms.hospital_management_system.service.search;
+
+import com.hms.hospital_management_system.dto.DoctorResponse;
+import com.hms.hospital_management_system.mapper.DoctorMapper;
+import com.hms.hospital_management_system.repository.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class DoctorSearchIndexTest {
+
+	private final DoctorSearchIndex index = new DoctorSearchIndex(mock(DoctorRepository.class), new DoctorMapper());
+
+	@BeforeEach
+	void seed() {
+		index.put(doctor(1L, "John", "Smith", "Cardiology"));
+		index.put(doctor(2L, "Johanna", "Meyer", "Dermatology"));
+		index.put(doctor(3L, "Anna", "Johnson", "Cardiology"));
+		index.put(doctor(4L, "José", "García", "Neurology"));
+	}
+
+	@Test
+	void exactWordsRankAbovePrefixes() {
+		assertThat(ids(index.search("john", PageRequest.of(0, 10)))).containsExactly(1L, 3L, 2L);
+	}
+
+	@Test
+	void everyQueryWordMustMatchAcrossNameAndSpecialization() {
+		assertThat(ids(index.search("john cardiology", PageRequest.of(0, 10)))).containsExactly(1L, 3L);
+		assertThat(ids(index.search("smith dermatology", PageRequest.of(0, 10)))).isEmpty();
+	}
+
+	@Test
+	void toleratesTyposAndAccents() {
+		assertThat(ids(index.search("cardiolgy", PageRequest.of(0, 10)))).containsExactlyInAnyOrder(1L, 3L);
+		assertThat(ids(index.search("smtih", PageRequest.of(0, 10)))).containsExactly(1L);
+		assertThat(ids(index.search("jose garcia", PageRequest.of(0, 10)))).containsExactly(4L);
+	}
+
+	@Test
+	void updatesAndRemovalsAreReflected() {
+		index.put(doctor(1L, "John", "Smith", "Oncology"));
+		index.remove(3L);
+
+		assertThat(ids(index.search("cardiology", PageRequest.of(0, 10)))).isEmpty();
+		assertThat(ids(index.search("oncology", PageRequest.of(0, 10)))).containsExactly(1L);
+	}
+
+	@Test
+	void findsDoctorsBySpecializationText() {
+		index.put(doctor(5L, "Lena", "Roth", "Pediatric Cardiology"));
+
+		assertThat(index.findBySpecialization("cardiology")).extracting(DoctorResponse::getId).containsExactly(1L, 3L, 5L);
+		assertThat(index.findBySpecialization(" OLOGY ")).extracting(DoctorResponse::getId).containsExactly(1L, 2L, 3L, 4L, 5L);
+		assertThat(index.findBySpecialization("ped")).extracting(DoctorResponse::getId).containsExactly(5L);
+		assertThat(index.findBySpecialization("ro")).extracting(DoctorResponse::getId).containsExactly(4L);
+		assertThat(index.findBySpecialization("pediatric cardio")).extracting(DoctorResponse::getId).containsExactly(5L);
+		assertThat(index.findBySpecialization("cardiolgy")).isEmpty();
+	}
+
+	@Test
+	void pagesRankedResults() {
+		Page<DoctorResponse> page = index.search("jo", PageRequest.of(1, 2));
+
+		assertThat(page.getTotalElements()).isEqualTo(4);
+		assertThat(page.getContent()).hasSize(2);
+	}
+
+	private static List<Long> ids(Page<DoctorResponse> page) {
+		return page.getContent().stream().map(DoctorResponse::getId).toList();
+	}
+
+	private static DoctorResponse doctor(Long id, String firstName, String lastName, String specialization) {
+		return DoctorResponse.builder().id(id).firstName(firstName).lastName(lastName)
+				.email(firstName.toLowerCase() + id + "@hms.test").specialization(specialization).build();
+	}
+}
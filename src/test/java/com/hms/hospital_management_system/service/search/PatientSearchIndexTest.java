@@ -0,0 +1,93 @@
+package com.hms.hospital_management_system.service.search;
+
+import com.hms.hospital_management_system.dto.PatientResponse;
+import com.hms.hospital_management_system.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class PatientSearchIndexTest {
+
+	private static final LocalDate BIRTHDAY = LocalDate.of(1985, 4, 12);
+
+	private final PatientSearchIndex index = new PatientSearchIndex(mock(PatientRepository.class), mock(PlatformTransactionManager.class));
+
+	@BeforeEach
+	void seed() {
+		index.add(patient(1L, "John", "Smith", "john.smith@mail.test", "(555) 123-4567", BIRTHDAY));
+		index.add(patient(2L, "Jonathan", "Smyth", "jsmyth@mail.test", "555 987 6543", LocalDate.of(1990, 1, 1)));
+		index.add(patient(3L, "Joan", "Jones", "joan@mail.test", "+1 555 222 4567", BIRTHDAY));
+		index.add(patient(4L, "Maria", "Smithers", "maria@mail.test", "555-000-1111", LocalDate.of(1979, 9, 30)));
+	}
+
+	@Test
+	void ranksExactWordsAbovePrefixesAbovePhoneticMatches() {
+		// smith exactly, then smithers by prefix, then smyth by sound
+		assertThat(ids(index.search(query("smith"), PageRequest.of(0, 10)))).containsExactly(1L, 4L, 2L);
+	}
+
+	@Test
+	void findsPhoneticVariantsOfAName() {
+		assertThat(ids(index.search(query("jon smithe"), PageRequest.of(0, 10)))).contains(1L);
+	}
+
+	@Test
+	void findsByLastDigitsOrFullNumberWhateverTheFormatting() {
+		assertThat(ids(index.search(new PatientSearchQuery(null, "4567", null, null), PageRequest.of(0, 10))))
+				.containsExactlyInAnyOrder(1L, 3L);
+		assertThat(ids(index.search(new PatientSearchQuery(null, "+1 555-123-4567", null, null), PageRequest.of(0, 10))))
+				.containsExactly(1L);
+		assertThatThrownBy(() -> index.search(new PatientSearchQuery(null, "45", null, null), PageRequest.of(0, 10)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void combinesCriteria() {
+		assertThat(ids(index.search(new PatientSearchQuery("jo", null, null, BIRTHDAY), PageRequest.of(0, 10))))
+				.containsExactlyInAnyOrder(1L, 3L);
+		assertThat(ids(index.search(new PatientSearchQuery(null, null, "JOAN@mail.test", BIRTHDAY), PageRequest.of(0, 10))))
+				.containsExactly(3L);
+		assertThat(ids(index.search(new PatientSearchQuery("maria", "4567", null, null), PageRequest.of(0, 10)))).isEmpty();
+	}
+
+	@Test
+	void followsUpdatesAndDeletions() {
+		PatientResponse before = patient(4L, "Maria", "Smithers", "maria@mail.test", "555-000-1111", LocalDate.of(1979, 9, 30));
+		PatientResponse after = patient(4L, "Maria", "Lopez", "maria@mail.test", "555-000-1111", LocalDate.of(1979, 9, 30));
+		index.replace(before, after);
+		index.remove(patient(1L, "John", "Smith", "john.smith@mail.test", "(555) 123-4567", BIRTHDAY));
+
+		assertThat(ids(index.search(query("smith"), PageRequest.of(0, 10)))).containsExactly(2L);
+		assertThat(ids(index.search(query("lopez"), PageRequest.of(0, 10)))).containsExactly(4L);
+	}
+
+	@Test
+	void pagesRankedResultsAndReportsTheTotal() {
+		Page<Long> page = index.search(query("smith"), PageRequest.of(1, 2));
+
+		assertThat(page.getTotalElements()).isEqualTo(3);
+		assertThat(page.getContent()).containsExactly(2L);
+	}
+
+	private static PatientSearchQuery query(String name) {
+		return new PatientSearchQuery(name, null, null, null);
+	}
+
+	private static List<Long> ids(Page<Long> page) {
+		return page.getContent();
+	}
+
+	private static PatientResponse patient(Long id, String firstName, String lastName, String email, String phone, LocalDate dateOfBirth) {
+		return PatientResponse.builder().id(id).firstName(firstName).lastName(lastName).email(email).phone(phone)
+				.dateOfBirth(dateOfBirth).build();
+	}
+}